@@ -6,8 +6,13 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+// Concurrency imports
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 // AWT graphics imports
 import java.awt.Font;
 import java.awt.Color;
@@ -27,134 +32,41 @@ import javax.swing.UIManager;
 import javax.swing.ImageIcon;
 import javax.swing.JTextArea;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JScrollPane;
 import javax.swing.JOptionPane;
 import javax.swing.JFileChooser;
-// Swing threading import (allows the GUI to run in a thread)
+import javax.swing.JProgressBar;
+// Swing threading imports (allows the GUI to run in a thread, and files to be
+// hashed and encoded in the background)
+import javax.swing.Timer;
+import javax.swing.SwingWorker;
 import javax.swing.SwingUtilities;
-// BigInteger import
-import java.math.BigInteger;
-// Charset imports
-import java.nio.charset.StandardCharsets;
-// Hash class imports
-import org.kc7bfi.jflac.util.CRC8;
-import godlikeblock.util.CRC16;
-import java.util.zip.CRC32;
-import java.util.zip.Adler32;
-import byte_transforms.CRC64;
-import fr.cryptohash.RIPEMD;
-import fr.cryptohash.RIPEMD128;
-import fr.cryptohash.RIPEMD160;
-import fr.cryptohash.SHA0;
-import fr.cryptohash.Tiger;
-import fr.cryptohash.Tiger2;
-import fr.cryptohash.Whirlpool0;
-import fr.cryptohash.Whirlpool1;
-import fr.cryptohash.Whirlpool;
-import com.amazonaws.util.Base16;
-import com.amazonaws.util.Base16Lower;
-import org.apache.commons.codec.binary.Base32;
-import java.util.Base64;
-import com.orwell.util.Ascii85;
-import de.bwaldvogel.base91.Base91;
-import rawr.util.Base93;
-import at.favre.lib.encoding.Base122;
-import org.apache.geronimo.mail.util.UUEncode;
-import org.mesh4j.sync.utils.YEnc;
-import rawr.util.HexagramEncode;
-// MD2-SHA512 hash imports
-import org.apache.commons.codec.digest.DigestUtils;
-import jcifs.util.MD4;
-// XYZ hash import (the algorithm of said hash is from https://docstore.mik.ua/orelly/java-ent/security/ch09_03.htm)
-import com.xyz.XYZMessageDigest;
-// Misc imports
-import java.util.Arrays;
-import jcifs.util.Hexdump;
-import org.apache.commons.codec.EncoderException;
+// Collection imports
+import java.util.Map;
+import java.util.Set;
+import java.util.EnumMap;
+import java.util.Collections;
+// Hash and encoding engine imports (every algorithm is fed from a single pass
+// over the input)
+import rawr.util.Encoding;
+import rawr.util.FileHasher;
+import rawr.util.HashAlgorithm;
+import rawr.util.HashListener;
+import rawr.util.HashProfile;
+import rawr.util.HashResult;
+import rawr.util.HashSession;
+import rawr.util.HexFormatter;
+import rawr.util.TigerTree;
 
 // define class
 public class CRencodingGUI extends JPanel implements ActionListener {
 	private static final Logger logger = Logger.getLogger(CRencodingGUI.class.getName());
-	// declaring our variables (Strings, GUI elements, even the serialVersionUID)
+	// declaring our variables (GUI elements, even the serialVersionUID)
 	private static final long serialVersionUID = 999L;
-	protected static String crc8string;
-	protected static String crc16string;
-	protected static String crc32string;
-	protected static String adler32string;
-	protected static String crc64string;
-	protected static String ripemdstring;
-	protected static String ripemd128string;
-	protected static String ripemd160string;
-	protected static String tigerstring;
-	protected static String tiger2string;
-	protected static String whirlpool0string;
-	protected static String whirlpool1string;
-	protected static String whirlpoolstring;
-	protected static String xyzstring;
-	protected static String md2string;
-	protected static String md4string;
-	protected static String md5string;
-	protected static String sha0string;
-	protected static String sha1string;
-	protected static String sha224string;
-	protected static String sha256string;
-	protected static String sha384string;
-	protected static String sha512string;
-	protected static String base15upperstring;
-	protected static String base15lowerstring;
-	protected static String base16upperstring;
-	protected static String base16lowerstring;
-	protected static String base17upperstring;
-	protected static String base17lowerstring;
-	protected static String base18upperstring;
-	protected static String base18lowerstring;
-	protected static String base19upperstring;
-	protected static String base19lowerstring;
-	protected static String base20upperstring;
-	protected static String base20lowerstring;
-	protected static String base21upperstring;
-	protected static String base21lowerstring;
-	protected static String base22upperstring;
-	protected static String base22lowerstring;
-	protected static String base23upperstring;
-	protected static String base23lowerstring;
-	protected static String base24upperstring;
-	protected static String base24lowerstring;
-	protected static String base25upperstring;
-	protected static String base25lowerstring;
-	protected static String base26upperstring;
-	protected static String base26lowerstring;
-	protected static String base27upperstring;
-	protected static String base27lowerstring;
-	protected static String base28upperstring;
-	protected static String base28lowerstring;
-	protected static String base29upperstring;
-	protected static String base29lowerstring;
-	protected static String base30upperstring;
-	protected static String base30lowerstring;
-	protected static String base31upperstring;
-	protected static String base31lowerstring;
-	protected static String base32upperstring;
-	protected static String base32lowerstring;
-	protected static String base33upperstring;
-	protected static String base33lowerstring;
-	protected static String base34upperstring;
-	protected static String base34lowerstring;
-	protected static String base35upperstring;
-	protected static String base35lowerstring;
-	protected static String base36upperstring;
-	protected static String base36lowerstring;
-	protected static String base64string;
-	protected static String base64ufstring;
-	protected static String base64mimestring;
-	protected static String base85string;
-	protected static String base85nonarrowstring;
-	protected static String base91string;
-	protected static String base93string;
-	protected static String base122string;
-	protected static String uuencodestring;
-	protected static String yencstring;
-	protected static String hexencstring;
+	// files larger than this are hashed but not encoded, as every encoding needs
+	// the whole file (and several copies of it) in memory (64 MB)
+	private static final long MAX_ENCODE_LENGTH = 64L * 1024 * 1024;
 	protected File file;
 	protected static File outputfile;
 	JButton openButton;
@@ -162,28 +74,27 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 	JButton saveButton;
 	JButton creditsButton;
 	JButton clearButton;
+	JButton cancelButton;
+	// picks which hashes and encodings are computed; the others are never even created
+	JComboBox<HashProfile> profileBox;
+	// shows how much of the current file has been hashed, and how fast
+	JProgressBar progressBar;
+	// the file being hashed and encoded in the background, if any
+	private transient HashTask task;
+	// refreshes the progress bar while a file is being hashed
+	private final transient Timer progressTimer = new Timer(250, e -> updateProgress());
 	// create the log, file chooser, and checkboxes
 	public static final JTextArea log = new JTextArea(5, 20);
 	static JFileChooser fc = new JFileChooser();
 	static JCheckBox checkbox = new JCheckBox("Show hidden files in file chooser");
-	public static final SHA0 e0 = new SHA0();
-	public static final MD4 e4 = new MD4();
-	public static final CRC16 e16 = new CRC16();
-	public static final CRC32 e32 = new CRC32();
-	public static final CRC64 e64 = new CRC64();
-	public static final Adler32 ae32 = new Adler32();
-	public static final RIPEMD ermd = new RIPEMD();
-	public static final RIPEMD128 e128 = new RIPEMD128();
-	public static final RIPEMD160 e160 = new RIPEMD160();
-	public static final Tiger et = new Tiger();
-	public static final Tiger2 et2 = new Tiger2();
-	public static final Whirlpool0 ew1 = new Whirlpool0();
-	public static final Whirlpool1 ew2 = new Whirlpool1();
-	public static final Whirlpool ew = new Whirlpool();
-	public static final XYZMessageDigest exyz = new XYZMessageDigest();
-	public static final Base32 b32 = new Base32();
-	public static final Base122 b122 = new Base122();
-	public static final YEnc eyenc = new YEnc();
+	// streams files through the hashes with a fixed-size buffer
+	static final FileHasher hasher = new FileHasher();
+	// the progress bar counts in tenths of a percent
+	private static final int PROGRESS_STEPS = 1000;
+	private static final double MB = 1 << 20;
+	// every hashing job gets its own result, so jobs never share state; there
+	// is one session per profile, created the first time the profile is used
+	private static final Map<HashProfile, HashSession> sessions = new EnumMap<>(HashProfile.class);
 	public static void main(String[] args) {
         if (Boolean.getBoolean("java.awt.headless") || GraphicsEnvironment.isHeadless()) {
             logger.severe("Error: This GUI cannot be run in headless mode.");
@@ -223,12 +134,23 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 		saveButton = new JButton("Save Hashes/Encoded Strings As...", createImageIcon("images/Save16.gif"));
 		creditsButton = new JButton("Credits...");
 		clearButton = new JButton("Clear Log...");
+		cancelButton = new JButton("Cancel");
+		cancelButton.setEnabled(false);
+		profileBox = new JComboBox<>();
+		for (HashProfile profile : HashProfile.values())
+			profileBox.addItem(profile);
+		profileBox.setSelectedItem(HashProfile.ALL);
+		progressBar = new JProgressBar(0, PROGRESS_STEPS);
+		progressBar.setStringPainted(true);
+		progressBar.setString("");
+		progressBar.setPreferredSize(new Dimension(400, progressBar.getPreferredSize().height));
 		// set up ActionListeners
 		openButton.addActionListener(this);
 		stringButton.addActionListener(this);
 		saveButton.addActionListener(this);
 		creditsButton.addActionListener(this);
 		clearButton.addActionListener(this);
+		cancelButton.addActionListener(this);
 		// add the button panels and format them correctly
 		JPanel topPanel = new JPanel();
 		JPanel bottomPanel = new JPanel();
@@ -236,8 +158,12 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 		topPanel.add(stringButton);
 		topPanel.add(saveButton);
 		topPanel.add(creditsButton);
+		topPanel.add(new JLabel("Profile:"));
+		topPanel.add(profileBox);
 		bottomPanel.add(checkbox);
 		bottomPanel.add(clearButton);
+		bottomPanel.add(progressBar);
+		bottomPanel.add(cancelButton);
 		add(topPanel, BorderLayout.PAGE_START);
 		add(logScrollPane, BorderLayout.CENTER);
 		add(bottomPanel, BorderLayout.PAGE_END);
@@ -251,21 +177,47 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 			return;
 		}
 
-		try {
-			file = fc.getSelectedFile();
-			try (FileInputStream filestream = new FileInputStream(file)) {
-				log.append("Opening " + file.getName() + "...\n");
-				log.append("Open successful!\n");
-				getHashes(filestream);
-				log.append("The hashes/encoded strings of " + file.getName() + " are:\n");
-				logHashes();
-			}
-		} catch (FileNotFoundException e) {
-			log.append("Error: File not found.\n");
-		} catch (IOException e) {
-			logger.severe("Error reading file: " + e.getMessage());
-		}
+		file = fc.getSelectedFile();
+		log.append("Opening " + file.getName() + "...\n");
 		log.setCaretPosition(log.getDocument().getLength());
+		// hash and encode the file in the background, so that the window stays responsive
+		task = new HashTask(file, (HashProfile) profileBox.getSelectedItem());
+		openButton.setEnabled(false);
+		stringButton.setEnabled(false);
+		cancelButton.setEnabled(true);
+		progressBar.setValue(0);
+		progressTimer.start();
+		task.execute();
+	}
+
+	private void handleCancelButton() {
+		if (task == null)
+			return;
+		task.stop(); // the hasher notices between two buffers
+		cancelButton.setEnabled(false);
+	}
+
+	// called on the event dispatch thread once the background hashing is over
+	private void hashingDone() {
+		task = null;
+		progressTimer.stop();
+		progressBar.setValue(0);
+		progressBar.setString("");
+		openButton.setEnabled(true);
+		stringButton.setEnabled(true);
+		cancelButton.setEnabled(false);
+		log.setCaretPosition(log.getDocument().getLength());
+	}
+
+	private void updateProgress() {
+		if (task == null)
+			return;
+		long done = task.bytesHashed;
+		long total = task.length;
+		double seconds = (System.nanoTime() - task.startTime) / 1e9;
+		progressBar.setValue(total > 0 ? (int) (done * PROGRESS_STEPS / total) : 0);
+		progressBar.setString(String.format("%.1f of %.1f MB (%.1f MB/s)", done / MB, total / MB,
+				seconds > 0 ? done / MB / seconds : 0));
 	}
 
 	private void handleStringButton() {
@@ -273,9 +225,11 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 		if (string == null)
 			return;
 
-		getStringHashes(string);
+		HashProfile profile = (HashProfile) profileBox.getSelectedItem();
+		HashResult result = getStringHashes(string, profile);
 		log.append("The hashes/encoded strings of " + string + " are:\n");
-		logHashes();
+		logHashes(result);
+		logEncodings(getStringEncodings(string, profile));
 	}
 
 	private void handleSaveButton() {
@@ -362,91 +316,31 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 			return;
 		}
 
+		if (src == cancelButton) {
+			handleCancelButton();
+			return;
+		}
+
 		if (src == creditsButton) {
 			showCredits();
 		}
 	}
 
-	private void logHashes() {
+	private void logHashes(HashResult result) {
 		// The full list of hash strings
-		log.append("CRC8: " + crc8string + "\n");
-		log.append("CRC16: " + crc16string + "\n");
-		log.append("CRC32: " + crc32string + "\n");
-		log.append("Adler-32: " + adler32string + "\n");
-		log.append("XYZ: " + xyzstring + "\n");
-		log.append("CRC64: " + crc64string + "\n");
-		log.append("MD2: " + md2string + "\n");
-		log.append("MD4: " + md4string + "\n");
-		log.append("MD5: " + md5string + "\n");
-		log.append("RIPEMD: " + ripemdstring + "\n");
-		log.append("RIPEMD128: " + ripemd128string + "\n");
-		log.append("RIPEMD160: " + ripemd160string + "\n");
-		log.append("SHA-0: " + sha0string + "\n");
-		log.append("SHA-1/SHA160: " + sha1string + "\n");
-		log.append("Tiger: " + tigerstring + "\n");
-		log.append("Tiger2: " + tiger2string + "\n");
-		log.append("SHA224: " + sha224string + "\n");
-		log.append("SHA256: " + sha256string + "\n");
-		log.append("SHA384: " + sha384string + "\n");
-		log.append("SHA512: " + sha512string + "\n");
-		log.append("Whirlpool 2000: " + whirlpool0string + "\n");
-		log.append("Whirlpool 2001: " + whirlpool1string + "\n");
-		log.append("Whirlpool 2003: " + whirlpoolstring + "\n");
-		log.append("Base15 (Uppercase): " + base15upperstring + "\n");
-		log.append("Base15 (Lowercase): " + base15lowerstring + "\n");
-		log.append("Base16 (Uppercase): " + base16upperstring + "\n");
-		log.append("Base16 (Lowercase): " + base16lowerstring + "\n");
-		log.append("Base17 (Uppercase): " + base17upperstring + "\n");
-		log.append("Base17 (Lowercase): " + base17lowerstring + "\n");
-		log.append("Base18 (Uppercase): " + base18upperstring + "\n");
-		log.append("Base18 (Lowercase): " + base18lowerstring + "\n");
-		log.append("Base19 (Uppercase): " + base19upperstring + "\n");
-		log.append("Base19 (Lowercase): " + base19lowerstring + "\n");
-		log.append("Base20 (Uppercase): " + base20upperstring + "\n");
-		log.append("Base20 (Lowercase): " + base20lowerstring + "\n");
-		log.append("Base21 (Uppercase): " + base21upperstring + "\n");
-		log.append("Base21 (Lowercase): " + base21lowerstring + "\n");
-		log.append("Base22 (Uppercase): " + base22upperstring + "\n");
-		log.append("Base22 (Lowercase): " + base22lowerstring + "\n");
-		log.append("Base23 (Uppercase): " + base23upperstring + "\n");
-		log.append("Base23 (Lowercase): " + base23lowerstring + "\n");
-		log.append("Base24 (Uppercase): " + base24upperstring + "\n");
-		log.append("Base24 (Lowercase): " + base24lowerstring + "\n");
-		log.append("Base25 (Uppercase): " + base25upperstring + "\n");
-		log.append("Base25 (Lowercase): " + base25lowerstring + "\n");
-		log.append("Base26 (Uppercase): " + base26upperstring + "\n");
-		log.append("Base26 (Lowercase): " + base26lowerstring + "\n");
-		log.append("Base27 (Uppercase): " + base27upperstring + "\n");
-		log.append("Base27 (Lowercase): " + base27lowerstring + "\n");
-		log.append("Base28 (Uppercase): " + base28upperstring + "\n");
-		log.append("Base28 (Lowercase): " + base28lowerstring + "\n");
-		log.append("Base29 (Uppercase): " + base29upperstring + "\n");
-		log.append("Base29 (Lowercase): " + base29lowerstring + "\n");
-		log.append("Base30 (Uppercase): " + base30upperstring + "\n");
-		log.append("Base30 (Lowercase): " + base30lowerstring + "\n");
-		log.append("Base31 (Uppercase): " + base31upperstring + "\n");
-		log.append("Base31 (Lowercase): " + base31lowerstring + "\n");
-		log.append("Base32 (Uppercase): " + base32upperstring + "\n");
-		log.append("Base32 (Lowercase): " + base32lowerstring + "\n");
-		log.append("Base33 (Uppercase): " + base33upperstring + "\n");
-		log.append("Base33 (Lowercase): " + base33lowerstring + "\n");
-		log.append("Base34 (Uppercase): " + base34upperstring + "\n");
-		log.append("Base34 (Lowercase): " + base34lowerstring + "\n");
-		log.append("Base35 (Uppercase): " + base35upperstring + "\n");
-		log.append("Base35 (Lowercase): " + base35lowerstring + "\n");
-		log.append("Base36 (Uppercase): " + base36upperstring + "\n");
-		log.append("Base36 (Lowercase): " + base36lowerstring + "\n");
-		log.append("Base64: " + base64string + "\n");
-		log.append("Base64 (URL/filename safe): " + base64ufstring + "\n");
-		log.append("Base64 (MIME): " + base64mimestring + "\n");
-		log.append("Base85 (With Arrows): " + base85string + "\n");
-		log.append("Base85 (Without Arrows): " + base85nonarrowstring + "\n");
-		log.append("basE91: " + base91string + "\n");
-		log.append("Base93: " + base93string + "\n");
-		log.append("Base122: " + base122string + "\n");
-		log.append("UUEncode: " + uuencodestring + "\n");
-		log.append("yEnc: " + yencstring + "\n");
-		log.append("HexagramEncode:" + hexencstring + "\n");
+		for (HashAlgorithm algorithm : result.getAlgorithms())
+			log.append(hashLine(algorithm, result.get(algorithm)) + "\n");
+	}
+
+	// encodings is null when the file was too large to be encoded
+	private void logEncodings(Map<Encoding, String> encodings) {
+		// The full list of encoded strings
+		if (encodings == null) {
+			log.append("Encodings skipped: the file is larger than " + (MAX_ENCODE_LENGTH >> 20) + " MB.\n");
+			return;
+		}
+		for (Map.Entry<Encoding, String> encoding : encodings.entrySet())
+			log.append(encoding.getKey().getLabel() + ": " + encoding.getValue() + "\n");
 	}
 
 	private static ImageIcon createImageIcon(String path) {
@@ -482,286 +376,130 @@ public class CRencodingGUI extends JPanel implements ActionListener {
 		}
 	}
 
-	private static void getHashes(FileInputStream filestream) {
-		try {
-			byte[] filebytes = readFileBytes(filestream);
-			// generate the hashes/encoded strings and output them to their respective
-			// strings, doing whatever operations are needed to make them display correctly
-			int crc8int = CRC8.calc(filebytes, filebytes.length) & 0xff;
-			crc8string = String.format("%02X", crc8int);
-			int crc16int = e16.update(filebytes);
-			crc16string = String.format("%04X", crc16int);
-			e32.update(filebytes);
-			long crc32long = e32.getValue();
-			crc32string = String.format("%08X", crc32long);
-			ae32.update(filebytes);
-			long adler32long = ae32.getValue();
-			adler32string = String.format("%08X", adler32long);
-			e64.update(filebytes);
-			long crc64long = e64.getValue();
-			crc64string = String.format("%016X", crc64long);
-			md2string = DigestUtils.md2Hex(filebytes).toUpperCase();
-			e4.engineUpdate(filebytes, 0, filebytes.length);
-			byte[] md4hashbytes = e4.engineDigest();
-			md4string = Hexdump.toHexString(md4hashbytes, 0, md4hashbytes.length * 2);
-			exyz.engineUpdate(filebytes, 0, filebytes.length);
-			byte[] xyzhashbytes = exyz.engineDigest();
-			xyzstring = Hexdump.toHexString(xyzhashbytes, 0, xyzhashbytes.length * 2);
-			md5string = DigestUtils.md5Hex(filebytes).toUpperCase();
-			ermd.update(filebytes);
-			byte[] ripemdbytes = ermd.digest();
-			ripemdstring = Hexdump.toHexString(ripemdbytes, 0, ripemdbytes.length * 2);
-			e128.update(filebytes);
-			byte[] ripemd128bytes = e128.digest();
-			ripemd128string = Hexdump.toHexString(ripemd128bytes, 0, ripemd128bytes.length * 2);
-			e160.update(filebytes);
-			byte[] ripemd160bytes = e160.digest();
-			ripemd160string = Hexdump.toHexString(ripemd160bytes, 0, ripemd160bytes.length * 2);
-			e0.update(filebytes);
-			byte[] sha0bytes = e0.digest();
-			sha0string = Hexdump.toHexString(sha0bytes, 0, sha0bytes.length * 2);
-			sha1string = DigestUtils.sha1Hex(filebytes).toUpperCase();
-			sha224string = DigestUtils.sha224Hex(filebytes).toUpperCase();
-			sha256string = DigestUtils.sha256Hex(filebytes).toUpperCase();
-			sha384string = DigestUtils.sha384Hex(filebytes).toUpperCase();
-			sha512string = DigestUtils.sha512Hex(filebytes).toUpperCase();
-			et.update(filebytes);
-			byte[] tigerbytes = et.digest();
-			tigerstring = Hexdump.toHexString(tigerbytes, 0, tigerbytes.length * 2);
-			et2.update(filebytes);
-			byte[] tiger2bytes = et2.digest();
-			tiger2string = Hexdump.toHexString(tiger2bytes, 0, tiger2bytes.length * 2);
-			ew1.update(filebytes);
-			byte[] whirlpool0bytes = ew1.digest();
-			whirlpool0string = Hexdump.toHexString(whirlpool0bytes, 0, whirlpool0bytes.length * 2);
-			ew2.update(filebytes);
-			byte[] whirlpool1bytes = ew2.digest();
-			whirlpool1string = Hexdump.toHexString(whirlpool1bytes, 0, whirlpool1bytes.length * 2);
-			ew.update(filebytes);
-			byte[] whirlpoolbytes = ew.digest();
-			whirlpoolstring = Hexdump.toHexString(whirlpoolbytes, 0, whirlpoolbytes.length * 2);
-			base15upperstring = new BigInteger(1, filebytes).toString(15).toUpperCase();
-			base15lowerstring = new BigInteger(1, filebytes).toString(15);
-			byte[] base16upper = Base16.encode(filebytes);
-			base16upperstring = new String(base16upper);
-			byte[] base16lower = Base16Lower.encode(filebytes);
-			base16lowerstring = new String(base16lower);
-			base17upperstring = new BigInteger(1, filebytes).toString(17).toUpperCase();
-			base17lowerstring = new BigInteger(1, filebytes).toString(17);
-			base18upperstring = new BigInteger(1, filebytes).toString(18).toUpperCase();
-			base18lowerstring = new BigInteger(1, filebytes).toString(18);
-			base19upperstring = new BigInteger(1, filebytes).toString(19).toUpperCase();
-			base19lowerstring = new BigInteger(1, filebytes).toString(19);
-			base20upperstring = new BigInteger(1, filebytes).toString(20).toUpperCase();
-			base20lowerstring = new BigInteger(1, filebytes).toString(20);
-			base21upperstring = new BigInteger(1, filebytes).toString(21).toUpperCase();
-			base21lowerstring = new BigInteger(1, filebytes).toString(21);
-			base22upperstring = new BigInteger(1, filebytes).toString(22).toUpperCase();
-			base22lowerstring = new BigInteger(1, filebytes).toString(22);
-			base23upperstring = new BigInteger(1, filebytes).toString(23).toUpperCase();
-			base23lowerstring = new BigInteger(1, filebytes).toString(23);
-			base24upperstring = new BigInteger(1, filebytes).toString(24).toUpperCase();
-			base24lowerstring = new BigInteger(1, filebytes).toString(24);
-			base25upperstring = new BigInteger(1, filebytes).toString(25).toUpperCase();
-			base25lowerstring = new BigInteger(1, filebytes).toString(25);
-			base26upperstring = new BigInteger(1, filebytes).toString(26).toUpperCase();
-			base26lowerstring = new BigInteger(1, filebytes).toString(26);
-			base27upperstring = new BigInteger(1, filebytes).toString(27).toUpperCase();
-			base27lowerstring = new BigInteger(1, filebytes).toString(27);
-			base28upperstring = new BigInteger(1, filebytes).toString(28).toUpperCase();
-			base28lowerstring = new BigInteger(1, filebytes).toString(28);
-			base29upperstring = new BigInteger(1, filebytes).toString(29).toUpperCase();
-			base29lowerstring = new BigInteger(1, filebytes).toString(29);
-			base30upperstring = new BigInteger(1, filebytes).toString(30).toUpperCase();
-			base30lowerstring = new BigInteger(1, filebytes).toString(30);
-			base31upperstring = new BigInteger(1, filebytes).toString(31).toUpperCase();
-			base31lowerstring = new BigInteger(1, filebytes).toString(31);
-			byte[] base32 = b32.encode(filebytes);
-			base32upperstring = new String(base32);
-			base32lowerstring = new String(base32).toLowerCase();
-			base33upperstring = new BigInteger(1, filebytes).toString(33).toUpperCase();
-			base33lowerstring = new BigInteger(1, filebytes).toString(33);
-			base34upperstring = new BigInteger(1, filebytes).toString(34).toUpperCase();
-			base34lowerstring = new BigInteger(1, filebytes).toString(34);
-			base35upperstring = new BigInteger(1, filebytes).toString(35).toUpperCase();
-			base35lowerstring = new BigInteger(1, filebytes).toString(35);
-			base36upperstring = new BigInteger(1, filebytes).toString(36).toUpperCase();
-			base36lowerstring = new BigInteger(1, filebytes).toString(36);
-			byte[] base64 = Base64.getEncoder().encode(filebytes);
-			base64string = new String(base64);
-			byte[] base64uf = Base64.getUrlEncoder().encode(filebytes);
-			base64ufstring = new String(base64uf);
-			byte[] base64mime = Base64.getMimeEncoder().encode(filebytes);
-			// Base64 MIME normally newlines the hash every 76 characters as per RFC 2045,
-			// remove these so it shows up properly in our GUI window
-			base64mimestring = new String(base64mime).replaceAll("\\R", "");
-			byte[] base85 = Ascii85.encode(filebytes);
-			byte[] base85witharrows = Ascii85.addIdentifiers(base85);
-			base85string = new String(base85witharrows);
-			base85nonarrowstring = new String(base85);
-			byte[] base91 = Base91.encode(filebytes);
-			base91string = new String(base91);
-			byte[] base93 = Base93.encode(filebytes);
-			base93string = new String(base93);
-			String base122 = b122.encode(filebytes);
-			base122string = base122;
-			// UUEncode normally newlines the hash every 45 characters,
-			// remove these so it shows up properly in our GUI window
-			byte[] uuenc = UUEncode.encode(filebytes);
-			uuencodestring = new String(uuenc).replaceAll("\\R", "");
-			tryEncodeYenc(filebytes);
-			// HexagramEncode normally newlines the hash every 76 characters as per RFC 2045,
-			// remove these so it shows up properly in our GUI window
-			String hexenc = HexagramEncode.encode(Arrays.toString(filebytes)).replaceAll("\\R", "");
-			hexencstring = hexenc;
-			// if the file suddenly doesn't exist, or if an I/O error occurred
-		} catch (IOException e) {
-			log.append("Error when creating file input.\n"); // send this error to the log
+	// hashes and encodes a file off the event dispatch thread, and logs each hash
+	// as soon as it is ready, so that the checksums show up long before the slow
+	// hashes and the encodings
+	private class HashTask extends SwingWorker<Map<Encoding, String>, String> {
+		private final File source;
+		private final HashSession session;
+		private final Set<Encoding> encodings;
+		private final long length;
+		private final long startTime = System.nanoTime();
+		private volatile long bytesHashed;
+		private volatile boolean stopped;
+
+		// not SwingWorker.cancel(), which calls done() at once while the file
+		// may still be read: the hasher stops at the next buffer, and done()
+		// follows once doInBackground() has returned
+		private final HashListener listener = new HashListener() {
+			@Override
+			public void bytesHashed(long total) {
+				HashTask.this.bytesHashed = total;
+			}
+
+			@Override
+			public void digestReady(int index, byte[] hash) {
+				publish(hashLine(session.getAlgorithms().get(index), hash));
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return stopped;
+			}
+		};
+
+		HashTask(File source, HashProfile profile) {
+			this.source = source;
+			this.session = sessionFor(profile);
+			this.encodings = profile.getEncodings();
+			this.length = source.length();
 		}
-	}
 
-	public static void tryEncodeYenc(byte[] filebytes) {
-		try {
-			byte[] yenc = eyenc.encode(filebytes);
-			yencstring = new String(yenc, StandardCharsets.UTF_8);
-		} catch (EncoderException e) {
-			e.printStackTrace();
+		@Override
+		protected Map<Encoding, String> doInBackground() throws IOException {
+			try (FileInputStream filestream = new FileInputStream(source)) {
+				publish("Open successful!");
+				publish("The hashes/encoded strings of " + source.getName() + " are:");
+				return getHashes(filestream, length, session, encodings, listener);
+			}
+		}
+
+		void stop() {
+			stopped = true;
+		}
+
+		@Override
+		protected void process(List<String> lines) {
+			if (stopped)
+				return;
+			for (String line : lines)
+				log.append(line + "\n");
+			log.setCaretPosition(log.getDocument().getLength());
+		}
+
+		@Override
+		protected void done() {
+			try {
+				// every hash has already been logged; the encodings are only
+				// known once everything is done
+				logEncodings(get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// if the user cancelled, the file doesn't exist, or an I/O error occurred
+				if (e.getCause() instanceof CancellationException) {
+					log.append("Hashing/encoding of " + source.getName() + " cancelled by user.\n");
+				} else if (e.getCause() instanceof FileNotFoundException) {
+					log.append("Error: File not found.\n");
+				} else {
+					log.append("Error when creating file input.\n"); // send this error to the log
+					logger.severe("Error reading file: " + e.getCause().getMessage());
+				}
+			}
+			hashingDone();
 		}
 	}
 
-	public static void getStringHashes(String string) {
-		byte[] stringbytes = string.getBytes();
-		int crc8int = CRC8.calc(stringbytes, stringbytes.length) & 0xff;
-		crc8string = String.format("%02X", crc8int);
-		int crc16int = e16.update(stringbytes);
-		crc16string = String.format("%04X", crc16int);
-		e32.update(stringbytes);
-		long crc32long = e32.getValue();
-		crc32string = String.format("%08X", crc32long);
-		ae32.update(stringbytes);
-		long adler32long = ae32.getValue();
-		adler32string = String.format("%08X", adler32long);
-		e64.update(stringbytes);
-		long crc64long = e64.getValue();
-		crc64string = String.format("%016X", crc64long);
-		md2string = DigestUtils.md2Hex(stringbytes).toUpperCase();
-		e4.engineUpdate(stringbytes, 0, stringbytes.length);
-		byte[] md4hashbytes = e4.engineDigest();
-		md4string = Hexdump.toHexString(md4hashbytes, 0, md4hashbytes.length * 2);
-		exyz.engineUpdate(stringbytes, 0, stringbytes.length);
-		byte[] xyzhashbytes = exyz.engineDigest();
-		xyzstring = Hexdump.toHexString(xyzhashbytes, 0, xyzhashbytes.length * 2);
-		md5string = DigestUtils.md5Hex(stringbytes).toUpperCase();
-		ermd.update(stringbytes);
-		byte[] ripemdbytes = ermd.digest();
-		ripemdstring = Hexdump.toHexString(ripemdbytes, 0, ripemdbytes.length * 2);
-		e128.update(stringbytes);
-		byte[] ripemd128bytes = e128.digest();
-		ripemd128string = Hexdump.toHexString(ripemd128bytes, 0, ripemd128bytes.length * 2);
-		e160.update(stringbytes);
-		byte[] ripemd160bytes = e160.digest();
-		ripemd160string = Hexdump.toHexString(ripemd160bytes, 0, ripemd160bytes.length * 2);
-		e0.update(stringbytes);
-		byte[] sha0bytes = e0.digest();
-		sha0string = Hexdump.toHexString(sha0bytes, 0, sha0bytes.length * 2);
-		sha1string = DigestUtils.sha1Hex(stringbytes).toUpperCase();
-		sha224string = DigestUtils.sha224Hex(stringbytes).toUpperCase();
-		sha256string = DigestUtils.sha256Hex(stringbytes).toUpperCase();
-		sha384string = DigestUtils.sha384Hex(stringbytes).toUpperCase();
-		sha512string = DigestUtils.sha512Hex(stringbytes).toUpperCase();
-		et.update(stringbytes);
-		byte[] tigerbytes = et.digest();
-		tigerstring = Hexdump.toHexString(tigerbytes, 0, tigerbytes.length * 2);
-		et2.update(stringbytes);
-		byte[] tiger2bytes = et2.digest();
-		tiger2string = Hexdump.toHexString(tiger2bytes, 0, tiger2bytes.length * 2);
-		ew1.update(stringbytes);
-		byte[] whirlpool0bytes = ew1.digest();
-		whirlpool0string = Hexdump.toHexString(whirlpool0bytes, 0, whirlpool0bytes.length * 2);
-		ew2.update(stringbytes);
-		byte[] whirlpool1bytes = ew2.digest();
-		whirlpool1string = Hexdump.toHexString(whirlpool1bytes, 0, whirlpool1bytes.length * 2);
-		ew.update(stringbytes);
-		byte[] whirlpoolbytes = ew.digest();
-		whirlpoolstring = Hexdump.toHexString(whirlpoolbytes, 0, whirlpoolbytes.length * 2);
-		base15upperstring = new BigInteger(1, stringbytes).toString(15).toUpperCase();
-		base15lowerstring = new BigInteger(1, stringbytes).toString(15);
-		byte[] base16upper = Base16.encode(stringbytes);
-		base16upperstring = new String(base16upper);
-		byte[] base16lower = Base16Lower.encode(stringbytes);
-		base16lowerstring = new String(base16lower);
-		base17upperstring = new BigInteger(1, stringbytes).toString(17).toUpperCase();
-		base17lowerstring = new BigInteger(1, stringbytes).toString(17);
-		base18upperstring = new BigInteger(1, stringbytes).toString(18).toUpperCase();
-		base18lowerstring = new BigInteger(1, stringbytes).toString(18);
-		base19upperstring = new BigInteger(1, stringbytes).toString(19).toUpperCase();
-		base19lowerstring = new BigInteger(1, stringbytes).toString(19);
-		base20upperstring = new BigInteger(1, stringbytes).toString(20).toUpperCase();
-		base20lowerstring = new BigInteger(1, stringbytes).toString(20);
-		base21upperstring = new BigInteger(1, stringbytes).toString(21).toUpperCase();
-		base21lowerstring = new BigInteger(1, stringbytes).toString(21);
-		base22upperstring = new BigInteger(1, stringbytes).toString(22).toUpperCase();
-		base22lowerstring = new BigInteger(1, stringbytes).toString(22);
-		base23upperstring = new BigInteger(1, stringbytes).toString(23).toUpperCase();
-		base23lowerstring = new BigInteger(1, stringbytes).toString(23);
-		base24upperstring = new BigInteger(1, stringbytes).toString(24).toUpperCase();
-		base24lowerstring = new BigInteger(1, stringbytes).toString(24);
-		base25upperstring = new BigInteger(1, stringbytes).toString(25).toUpperCase();
-		base25lowerstring = new BigInteger(1, stringbytes).toString(25);
-		base26upperstring = new BigInteger(1, stringbytes).toString(26).toUpperCase();
-		base26lowerstring = new BigInteger(1, stringbytes).toString(26);
-		base27upperstring = new BigInteger(1, stringbytes).toString(27).toUpperCase();
-		base27lowerstring = new BigInteger(1, stringbytes).toString(27);
-		base28upperstring = new BigInteger(1, stringbytes).toString(28).toUpperCase();
-		base28lowerstring = new BigInteger(1, stringbytes).toString(28);
-		base29upperstring = new BigInteger(1, stringbytes).toString(29).toUpperCase();
-		base29lowerstring = new BigInteger(1, stringbytes).toString(29);
-		base30upperstring = new BigInteger(1, stringbytes).toString(30).toUpperCase();
-		base30lowerstring = new BigInteger(1, stringbytes).toString(30);
-		base31upperstring = new BigInteger(1, stringbytes).toString(31).toUpperCase();
-		base31lowerstring = new BigInteger(1, stringbytes).toString(31);
-		byte[] base32 = b32.encode(stringbytes);
-		base32upperstring = new String(base32);
-		base32lowerstring = new String(base32).toLowerCase();
-		base33upperstring = new BigInteger(1, stringbytes).toString(33).toUpperCase();
-		base33lowerstring = new BigInteger(1, stringbytes).toString(33);
-		base34upperstring = new BigInteger(1, stringbytes).toString(34).toUpperCase();
-		base34lowerstring = new BigInteger(1, stringbytes).toString(34);
-		base35upperstring = new BigInteger(1, stringbytes).toString(35).toUpperCase();
-		base35lowerstring = new BigInteger(1, stringbytes).toString(35);
-		base36upperstring = new BigInteger(1, stringbytes).toString(36).toUpperCase();
-		base36lowerstring = new BigInteger(1, stringbytes).toString(36);
-		byte[] base64 = Base64.getEncoder().encode(stringbytes);
-		base64string = new String(base64);
-		byte[] base64uf = Base64.getUrlEncoder().encode(stringbytes);
-		base64ufstring = new String(base64uf);
-		byte[] base64mime = Base64.getMimeEncoder().encode(stringbytes);
-		// Base64 MIME normally newlines the hash every 76 characters as per RFC 2045,
-		// remove these so it shows up properly in our GUI window
-		base64mimestring = new String(base64mime).replaceAll("\\R", "");
-		byte[] base85 = Ascii85.encode(stringbytes);
-		byte[] base85witharrows = Ascii85.addIdentifiers(base85);
-		base85string = new String(base85witharrows);
-		base85nonarrowstring = new String(base85);
-		byte[] base91 = Base91.encode(stringbytes);
-		base91string = new String(base91);
-		byte[] base93 = Base93.encode(stringbytes);
-		base93string = new String(base93);
-		String base122 = b122.encode(stringbytes);
-		base122string = base122;
-		// UUEncode normally newlines the hash every 45 characters,
-		// remove these so it shows up properly in our GUI window
-		byte[] uuenc = UUEncode.encode(stringbytes);
-		uuencodestring = new String(uuenc).replaceAll("\\R", "");
-		try {
-			byte[] yenc = eyenc.encode(stringbytes);
-			yencstring = new String(yenc, StandardCharsets.UTF_8);
-		} catch (EncoderException e) {
-			e.printStackTrace();
+	// hash the file, then encode it unless it is too large; returns the encoded
+	// strings, or null if they were skipped
+	private static Map<Encoding, String> getHashes(FileInputStream filestream, long length, HashSession session,
+			Set<Encoding> encodings, HashListener listener) throws IOException {
+		boolean hashed = !session.getAlgorithms().isEmpty();
+		if (encodings.isEmpty() || length > MAX_ENCODE_LENGTH) {
+			// nothing to encode, or too large to encode, so only stream the file
+			// through the hashes, which never holds more than a few buffers of it
+			// in memory
+			if (hashed)
+				session.hash(filestream, listener);
+			return encodings.isEmpty() ? Collections.emptyMap() : null;
 		}
-		// HexagramEncode normally newlines the hash every 76 characters as per RFC 2045,
-		// remove these so it shows up properly in our GUI window
-		String hexenc = HexagramEncode.encode(Arrays.toString(stringbytes)).replaceAll("\\R", "");
-		hexencstring = hexenc;
+		byte[] filebytes = readFileBytes(filestream);
+		// generate the hashes in a single pass over the bytes, then the encoded strings
+		if (hashed)
+			session.hash(new ByteArrayInputStream(filebytes), listener);
+		if (listener.isCancelled())
+			throw new CancellationException("Encoding cancelled");
+		return Encoding.encodeAll(filebytes, encodings);
+	}
+
+	private static synchronized HashSession sessionFor(HashProfile profile) {
+		return sessions.computeIfAbsent(profile, p -> new HashSession(p, hasher));
+	}
+
+	// TTH roots are usually quoted in Base32, so show that as well
+	private static String hashLine(HashAlgorithm algorithm, byte[] hash) {
+		StringBuilder line = new StringBuilder(algorithm.getLabel()).append(": ");
+		HexFormatter.UPPER.append(line, hash);
+		if (algorithm == HashAlgorithm.TTH)
+			line.append(" (Base32: ").append(TigerTree.toBase32(hash)).append(')');
+		return line.toString();
+	}
+
+	public static HashResult getStringHashes(String string, HashProfile profile) {
+		return sessionFor(profile).hash(string.getBytes());
+	}
+
+	public static Map<Encoding, String> getStringEncodings(String string, HashProfile profile) {
+		return Encoding.encodeAll(string.getBytes(), profile.getEncodings());
 	}
 }
@@ -0,0 +1,304 @@
+// I/O imports
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+// NIO file imports (directory walking and glob matching)
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.PathMatcher;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+// Collection imports
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+// Hash engine imports (every algorithm is fed from a single pass over the input)
+import rawr.util.FileHasher;
+import rawr.util.HashCache;
+import rawr.util.HashAlgorithm;
+import rawr.util.HashProfile;
+import rawr.util.HashResult;
+import rawr.util.HashSession;
+import rawr.util.TreeHasher;
+
+/**
+ * Command-line front end to the hashing engine, for headless machines. It uses
+ * the same algorithms as the GUIs but never touches AWT or Swing.
+ *
+ * <pre>
+ * java CRhashingCLI [-p PROFILE | -a ALGORITHM,...] [-t THREADS] [-u] [-c CACHE] FILE|DIRECTORY|GLOB...
+ * </pre>
+ *
+ * Only the algorithms of the chosen {@link HashProfile} ({@code -p}), or the
+ * ones listed with {@code -a}, are created and run; the default is every
+ * standard one (the parallel tree hashes have to be asked for).
+ *
+ * Directories are hashed recursively, in name order. Arguments containing
+ * {@code * ? [ {} are expanded as globs (for shells that do not expand them,
+ * or when they are quoted), with {@code **} matching across directories.
+ *
+ * With {@code -c}, outputs are kept in a {@link HashCache} file between runs,
+ * and files whose size, modification time and identity have not changed are
+ * not read again.
+ *
+ * Files are hashed several at a time by a {@link TreeHasher}, each on a single
+ * thread; a lone file operand gets every thread to itself instead. Results are
+ * written in walk order, each file's as soon as every file before it is done,
+ * or with {@code -u} in whatever order files finish. There is one line per
+ * algorithm, in BSD tag style: {@code SHA256 (path) = hex}. Errors are reported
+ * on standard error and do not stop the run; the exit status is 0 if every
+ * file was hashed, 1 if any could not be, and 2 on a usage error.
+ *
+ * @author rawr51919
+ */
+public class CRhashingCLI implements TreeHasher.Results {
+
+	private static final int EXIT_OK = 0;
+	private static final int EXIT_FAILURE = 1;
+	private static final int EXIT_USAGE = 2;
+	private static final String USAGE = "Usage: java CRhashingCLI [-p PROFILE | -a ALGORITHM,...] [-t THREADS] [-u] [-c CACHE] FILE|DIRECTORY|GLOB...";
+
+	// hashes several files at once, each worker with its own engine
+	private final TreeHasher walker;
+	// hashes a single file with all the digest workers
+	private final TreeHasher single;
+	private final HashAlgorithm[] algorithms;
+	private final PrintStream out;
+	// flush after every file only when a person is watching, as millions of
+	// small writes would otherwise dominate the run time
+	private final boolean interactive = System.console() != null;
+	private boolean failed;
+	// number of files hashed so far, used to spot globs that match nothing
+	private long count;
+	// the ASCII parts of each line: "NAME (" for every algorithm, then
+	// ") = " after the file name, and the line separator after the digits
+	private final byte[][] prefixes;
+	private static final byte[] SEPARATOR = ") = ".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+	// reused for every output line; results arrive one at a time
+	private byte[] line = new byte[256];
+
+	CRhashingCLI(List<HashAlgorithm> algorithms, HashCache cache, int threads, boolean ordered, PrintStream out) {
+		// the walker already runs one file per thread, so a file must not
+		// start digest workers of its own on top: that would be up to
+		// threads * threads busy threads
+		FileHasher sequential = new FileHasher(FileHasher.DEFAULT_BUFFER_SIZE, FileHasher.InputMode.AUTO,
+				FileHasher.DEFAULT_MAP_THRESHOLD, 1);
+		FileHasher parallel = new FileHasher(FileHasher.DEFAULT_BUFFER_SIZE, FileHasher.InputMode.AUTO,
+				FileHasher.DEFAULT_MAP_THRESHOLD, threads);
+		this.walker = new TreeHasher(new HashSession(algorithms, sequential), cache, threads, ordered);
+		this.single = new TreeHasher(new HashSession(algorithms, parallel), cache, 1, ordered);
+		this.algorithms = algorithms.toArray(new HashAlgorithm[0]);
+		this.prefixes = new byte[this.algorithms.length][];
+		for (int i = 0; i < prefixes.length; i++)
+			prefixes[i] = (this.algorithms[i].name() + " (").getBytes(StandardCharsets.US_ASCII);
+		this.out = out;
+	}
+
+	public static void main(String[] args) {
+		List<HashAlgorithm> algorithms = new ArrayList<>(HashAlgorithm.standard());
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean ordered = true;
+		HashCache cache = null;
+		List<String> operands = new ArrayList<>();
+		try {
+			int i = 0;
+			for (; i < args.length && args[i].startsWith("-") && args[i].length() > 1; i++) {
+				String arg = args[i];
+				if (arg.equals("--")) {
+					i++;
+					break;
+				} else if (arg.equals("-h") || arg.equals("--help")) {
+					System.out.println(USAGE);
+					System.out.println("Algorithms: " + algorithmNames());
+					System.out.println("Profiles: " + profileNames());
+					return;
+				} else if (arg.equals("-u")) {
+					ordered = false;
+				} else if (arg.equals("-p") && i + 1 < args.length) {
+					HashProfile profile = HashProfile.forName(args[++i]);
+					if (profile.getAlgorithms().isEmpty())
+						throw new IllegalArgumentException("Profile has no hashes: " + profile.name());
+					algorithms = profile.getAlgorithms();
+				} else if (arg.equals("-a") && i + 1 < args.length) {
+					algorithms = parseAlgorithms(args[++i]);
+				} else if (arg.equals("-c") && i + 1 < args.length) {
+					cache = new HashCache(Paths.get(args[++i]), HashCache.DEFAULT_MAX_ENTRIES);
+				} else if (arg.equals("-t") && i + 1 < args.length) {
+					threads = Integer.parseInt(args[++i]);
+					if (threads <= 0)
+						throw new IllegalArgumentException("Thread count must be positive: " + threads);
+				} else {
+					throw new IllegalArgumentException("Unknown or incomplete option: " + arg);
+				}
+			}
+			for (; i < args.length; i++)
+				operands.add(args[i]);
+			if (operands.isEmpty())
+				throw new IllegalArgumentException("No files given");
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException included
+			System.err.println("CRhashingCLI: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(EXIT_USAGE);
+		}
+
+		if (cache != null) {
+			try {
+				cache.load();
+			} catch (IOException e) {
+				// start over rather than refuse to hash
+				System.err.println("CRhashingCLI: " + cache.getStore() + ": ignoring unreadable cache: " + e);
+			}
+		}
+		PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+				false);
+		CRhashingCLI cli = new CRhashingCLI(algorithms, cache, threads, ordered, out);
+		cli.hashOperands(operands);
+		if (cache != null) {
+			try {
+				cache.save();
+			} catch (IOException e) {
+				cli.error(cache.getStore().toString(), "cannot save cache: " + e);
+			}
+		}
+		out.flush();
+		System.exit(cli.failed || out.checkError() ? EXIT_FAILURE : EXIT_OK);
+	}
+
+	// accepts enum names and GUI labels, in any case
+	private static List<HashAlgorithm> parseAlgorithms(String list) {
+		List<HashAlgorithm> algorithms = new ArrayList<>();
+		for (String name : list.split(",")) {
+			HashAlgorithm match = null;
+			for (HashAlgorithm algorithm : HashAlgorithm.values())
+				if (algorithm.name().equalsIgnoreCase(name.trim()) || algorithm.getLabel().equalsIgnoreCase(name.trim()))
+					match = algorithm;
+			if (match == null)
+				throw new IllegalArgumentException("Unknown algorithm: " + name + " (known: " + algorithmNames() + ")");
+			if (!algorithms.contains(match))
+				algorithms.add(match);
+		}
+		return algorithms;
+	}
+
+	private static String profileNames() {
+		StringBuilder names = new StringBuilder();
+		for (HashProfile profile : HashProfile.values())
+			if (!profile.getAlgorithms().isEmpty())
+				names.append(names.length() == 0 ? "" : ",").append(profile.name());
+		return names.toString();
+	}
+
+	private static String algorithmNames() {
+		StringBuilder names = new StringBuilder();
+		for (HashAlgorithm algorithm : HashAlgorithm.values())
+			names.append(names.length() == 0 ? "" : ",").append(algorithm.name());
+		return names.toString();
+	}
+
+	// hash the operands in order, walking consecutive plain files and
+	// directories together so that they share the worker threads
+	void hashOperands(List<String> operands) {
+		List<Path> batch = new ArrayList<>();
+		for (String operand : operands) {
+			if (isGlob(operand)) {
+				hashBatch(batch);
+				hashGlob(operand);
+				continue;
+			}
+			try {
+				batch.add(Paths.get(operand));
+			} catch (InvalidPathException e) {
+				error(operand, e.getMessage());
+			}
+		}
+		hashBatch(batch);
+	}
+
+	private void hashBatch(List<Path> batch) {
+		if (batch.isEmpty())
+			return;
+		boolean lone = batch.size() == 1 && Files.isRegularFile(batch.get(0));
+		(lone ? single : walker).hash(batch, this);
+		batch.clear();
+	}
+
+	private static boolean isGlob(String operand) {
+		for (int i = 0; i < operand.length(); i++)
+			if ("*?[{".indexOf(operand.charAt(i)) >= 0)
+				return true;
+		return false;
+	}
+
+	// walk from the part of the pattern before the first wildcard, and only as
+	// deep as the pattern can reach
+	private void hashGlob(String pattern) {
+		String normalized = pattern.replace(File.separatorChar, '/');
+		int wildcard = 0;
+		while ("*?[{".indexOf(normalized.charAt(wildcard)) < 0)
+			wildcard++;
+		int cut = normalized.lastIndexOf('/', wildcard) + 1;
+		String base = normalized.substring(0, cut);
+		String rest = normalized.substring(cut);
+		int depth = rest.contains("**") ? Integer.MAX_VALUE : rest.split("/", -1).length;
+		PathMatcher matcher;
+		try {
+			matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized);
+		} catch (IllegalArgumentException e) {
+			error(pattern, "bad glob: " + e.getMessage());
+			return;
+		}
+		Path root = Paths.get(base);
+		long before = count;
+		if (Files.isDirectory(root))
+			walker.hash(Collections.singletonList(root), depth, matcher, this);
+		if (count == before)
+			error(pattern, "no matching files");
+	}
+
+	@Override
+	public void hashed(Path file, HashResult result) {
+		count++;
+		// lines are assembled as bytes and written straight to the buffered
+		// stream; only the file name needs encoding, once for all its lines
+		byte[] name = file.toString().getBytes(Charset.defaultCharset());
+		for (int i = 0; i < algorithms.length; i++) {
+			byte[] prefix = prefixes[i];
+			int length = prefix.length + name.length + SEPARATOR.length + 2 * result.getLength(algorithms[i])
+					+ NEWLINE.length;
+			if (line.length < length)
+				line = new byte[Math.max(length, 2 * line.length)];
+			int n = append(prefix, 0);
+			n = append(name, n);
+			n = append(SEPARATOR, n);
+			n = result.formatHex(algorithms[i], line, n);
+			n = append(NEWLINE, n);
+			out.write(line, 0, n);
+		}
+		if (interactive)
+			out.flush();
+	}
+
+	private int append(byte[] bytes, int off) {
+		System.arraycopy(bytes, 0, line, off, bytes.length);
+		return off + bytes.length;
+	}
+
+	@Override
+	public void failed(Path path, Exception cause) {
+		error(path.toString(), cause.toString());
+	}
+
+	private void error(String operand, String message) {
+		failed = true;
+		out.flush(); // keep the two streams in order on a terminal
+		System.err.println("CRhashingCLI: " + operand + ": " + message);
+	}
+}
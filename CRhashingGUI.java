@@ -6,8 +6,14 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.FileInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+// Collection imports
+import java.util.Map;
+import java.util.EnumMap;
+// Concurrency imports
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 // AWT graphics imports
 import java.awt.Font;
 import java.awt.Color;
@@ -27,62 +33,31 @@ import javax.swing.UIManager;
 import javax.swing.ImageIcon;
 import javax.swing.JTextArea;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JScrollPane;
 import javax.swing.JOptionPane;
 import javax.swing.JFileChooser;
-// Swing threading import (allows the GUI to run in a thread)
+import javax.swing.JProgressBar;
+// Swing threading imports (allows the GUI to run in a thread, and files to be
+// hashed in the background)
+import javax.swing.Timer;
+import javax.swing.SwingWorker;
 import javax.swing.SwingUtilities;
-// Hash class imports
-import org.kc7bfi.jflac.util.CRC8;
-import godlikeblock.util.CRC16;
-import java.util.zip.CRC32;
-import java.util.zip.Adler32;
-import byte_transforms.CRC64;
-import fr.cryptohash.RIPEMD;
-import fr.cryptohash.RIPEMD128;
-import fr.cryptohash.RIPEMD160;
-import fr.cryptohash.SHA0;
-import fr.cryptohash.Tiger;
-import fr.cryptohash.Tiger2;
-import fr.cryptohash.Whirlpool0;
-import fr.cryptohash.Whirlpool1;
-import fr.cryptohash.Whirlpool;
-// MD2-SHA512 hash imports
-import org.apache.commons.codec.digest.DigestUtils;
-import jcifs.util.MD4;
-// XYZ hash import (the algorithm of said hash is from https://docstore.mik.ua/orelly/java-ent/security/ch09_03.htm)
-import com.xyz.XYZMessageDigest;
-// Misc imports (for outputting the MD4 and XYZ hashes properly)
-import jcifs.util.Hexdump;
+// Hash engine imports (every algorithm is fed from a single pass over the input)
+import rawr.util.FileHasher;
+import rawr.util.HashAlgorithm;
+import rawr.util.HashListener;
+import rawr.util.HashProfile;
+import rawr.util.HashResult;
+import rawr.util.HashSession;
+import rawr.util.HexFormatter;
+import rawr.util.TigerTree;
 
 // define class
 public class CRhashingGUI extends JPanel implements ActionListener {
 	private static final Logger logger = Logger.getLogger(CRhashingGUI.class.getName());
-	// declaring our variables (Strings, GUI elements, even the serialVersionUID)
+	// declaring our variables (GUI elements, even the serialVersionUID)
 	private static final long serialVersionUID = 999L;
-	protected static String crc8string;
-	protected static String crc16string;
-	protected static String crc32string;
-	protected static String adler32string;
-	protected static String crc64string;
-	protected static String ripemdstring;
-	protected static String ripemd128string;
-	protected static String ripemd160string;
-	protected static String tigerstring;
-	protected static String tiger2string;
-	protected static String whirlpool0string;
-	protected static String whirlpool1string;
-	protected static String whirlpoolstring;
-	protected static String xyzstring;
-	protected static String md2string;
-	protected static String md4string;
-	protected static String md5string;
-	protected static String sha0string;
-	protected static String sha1string;
-	protected static String sha224string;
-	protected static String sha256string;
-	protected static String sha384string;
-	protected static String sha512string;
 	protected File file;
 	protected static File outputfile;
 	JButton openButton;
@@ -90,25 +65,27 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 	JButton saveButton;
 	JButton creditsButton;
 	JButton clearButton;
+	JButton cancelButton;
+	// picks which hashes are computed; the others are never even created
+	JComboBox<HashProfile> profileBox;
+	// shows how much of the current file has been hashed, and how fast
+	JProgressBar progressBar;
+	// the file being hashed in the background, if any
+	private transient HashTask task;
+	// refreshes the progress bar while a file is being hashed
+	private final transient Timer progressTimer = new Timer(250, e -> updateProgress());
 	// create the log, file chooser, and checkboxes
 	public static final JTextArea log = new JTextArea(5, 20);
 	static JFileChooser fc = new JFileChooser();
 	static JCheckBox checkbox = new JCheckBox("Show hidden files in file chooser");
-	public static final SHA0 e0 = new SHA0();
-	public static final MD4 e4 = new MD4();
-	public static final CRC16 e16 = new CRC16();
-	public static final CRC32 e32 = new CRC32();
-	public static final CRC64 e64 = new CRC64();
-	public static final Adler32 ae32 = new Adler32();
-	public static final RIPEMD ermd = new RIPEMD();
-	public static final RIPEMD128 e128 = new RIPEMD128();
-	public static final RIPEMD160 e160 = new RIPEMD160();
-	public static final Tiger et = new Tiger();
-	public static final Tiger2 et2 = new Tiger2();
-	public static final Whirlpool0 ew1 = new Whirlpool0();
-	public static final Whirlpool1 ew2 = new Whirlpool1();
-	public static final Whirlpool ew = new Whirlpool();
-	public static final XYZMessageDigest exyz = new XYZMessageDigest();
+	// streams files through the hashes with a fixed-size buffer
+	static final FileHasher hasher = new FileHasher();
+	// every hashing job gets its own result, so jobs never share state; there
+	// is one session per profile, created the first time the profile is used
+	private static final Map<HashProfile, HashSession> sessions = new EnumMap<>(HashProfile.class);
+	// the progress bar counts in tenths of a percent
+	private static final int PROGRESS_STEPS = 1000;
+	private static final double MB = 1 << 20;
 
 	public static void main(String[] args) {
         if (Boolean.getBoolean("java.awt.headless") || GraphicsEnvironment.isHeadless()) {
@@ -149,12 +126,25 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 		saveButton = new JButton("Save Hashes As...", createImageIcon("images/Save16.gif"));
 		creditsButton = new JButton("Credits...");
 		clearButton = new JButton("Clear Log...");
+		cancelButton = new JButton("Cancel");
+		cancelButton.setEnabled(false);
+		profileBox = new JComboBox<>();
+		// the encodings are only available in the encoding GUI
+		for (HashProfile profile : HashProfile.values())
+			if (!profile.getAlgorithms().isEmpty() && profile.getEncodings().isEmpty())
+				profileBox.addItem(profile);
+		profileBox.setSelectedItem(HashProfile.HASHES);
+		progressBar = new JProgressBar(0, PROGRESS_STEPS);
+		progressBar.setStringPainted(true);
+		progressBar.setString("");
+		progressBar.setPreferredSize(new Dimension(400, progressBar.getPreferredSize().height));
 		// set up ActionListeners
 		openButton.addActionListener(this);
 		stringButton.addActionListener(this);
 		saveButton.addActionListener(this);
 		creditsButton.addActionListener(this);
 		clearButton.addActionListener(this);
+		cancelButton.addActionListener(this);
 		// add the button panels and format them correctly
 		JPanel topPanel = new JPanel();
 		JPanel bottomPanel = new JPanel();
@@ -162,8 +152,12 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 		topPanel.add(stringButton);
 		topPanel.add(saveButton);
 		topPanel.add(creditsButton);
+		topPanel.add(new JLabel("Profile:"));
+		topPanel.add(profileBox);
 		bottomPanel.add(checkbox);
 		bottomPanel.add(clearButton);
+		bottomPanel.add(progressBar);
+		bottomPanel.add(cancelButton);
 		add(topPanel, BorderLayout.PAGE_START);
 		add(logScrollPane, BorderLayout.CENTER);
 		add(bottomPanel, BorderLayout.PAGE_END);
@@ -177,31 +171,58 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 			return;
 		}
 
-		try {
-			file = fc.getSelectedFile();
-			try (FileInputStream filestream = new FileInputStream(file)) {
-				log.append("Opening " + file.getName() + "...\n");
-				log.append("Open successful!\n");
-				getHashes(filestream);
-				log.append("The hashes/encoded strings of " + file.getName() + " are:\n");
-				logHashes();
-			}
-		} catch (FileNotFoundException e) {
-			log.append("Error: File not found.\n");
-		} catch (IOException e) {
-			logger.severe("Error reading file: " + e.getMessage());
-		}
+		file = fc.getSelectedFile();
+		log.append("Opening " + file.getName() + "...\n");
+		log.setCaretPosition(log.getDocument().getLength());
+		// hash the file in the background, so that the window stays responsive
+		task = new HashTask(file, (HashProfile) profileBox.getSelectedItem());
+		openButton.setEnabled(false);
+		stringButton.setEnabled(false);
+		cancelButton.setEnabled(true);
+		progressBar.setValue(0);
+		progressTimer.start();
+		task.execute();
+	}
+
+	private void handleCancelButton() {
+		if (task == null)
+			return;
+		task.stop(); // the hasher notices between two buffers
+		cancelButton.setEnabled(false);
+	}
+
+	// called on the event dispatch thread once the background hashing is over
+	private void hashingDone() {
+		task = null;
+		progressTimer.stop();
+		progressBar.setValue(0);
+		progressBar.setString("");
+		openButton.setEnabled(true);
+		stringButton.setEnabled(true);
+		cancelButton.setEnabled(false);
 		log.setCaretPosition(log.getDocument().getLength());
 	}
 
+	private void updateProgress() {
+		if (task == null)
+			return;
+		long done = task.bytesHashed;
+		long total = task.length;
+		double seconds = (System.nanoTime() - task.startTime) / 1e9;
+		progressBar.setValue(total > 0 ? (int) (done * PROGRESS_STEPS / total) : 0);
+		progressBar.setString(String.format("%.1f of %.1f MB (%.1f MB/s)", done / MB, total / MB,
+				seconds > 0 ? done / MB / seconds : 0));
+	}
+
 	private void handleStringButton() {
 		String string = JOptionPane.showInputDialog("Enter a string to be hashed and encoded here...");
 		if (string == null)
 			return;
 
-		getStringHashes(string);
+		HashProfile profile = (HashProfile) profileBox.getSelectedItem();
+		HashResult result = getStringHashes(string, profile);
 		log.append("The hashes/encoded strings of " + string + " are:\n");
-		logHashes();
+		logHashes(result);
 	}
 
 	private void handleSaveButton() {
@@ -279,36 +300,20 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 			return;
 		}
 
+		if (src == cancelButton) {
+			handleCancelButton();
+			return;
+		}
+
 		if (src == creditsButton) {
 			showCredits();
 		}
 	}
 
-	private void logHashes() {
+	private void logHashes(HashResult result) {
 		// The full list of hash strings
-		log.append("CRC8: " + crc8string + "\n");
-		log.append("CRC16: " + crc16string + "\n");
-		log.append("CRC32: " + crc32string + "\n");
-		log.append("Adler-32: " + adler32string + "\n");
-		log.append("XYZ: " + xyzstring + "\n");
-		log.append("CRC64: " + crc64string + "\n");
-		log.append("MD2: " + md2string + "\n");
-		log.append("MD4: " + md4string + "\n");
-		log.append("MD5: " + md5string + "\n");
-		log.append("RIPEMD: " + ripemdstring + "\n");
-		log.append("RIPEMD128: " + ripemd128string + "\n");
-		log.append("RIPEMD160: " + ripemd160string + "\n");
-		log.append("SHA-0: " + sha0string + "\n");
-		log.append("SHA-1/SHA160: " + sha1string + "\n");
-		log.append("Tiger: " + tigerstring + "\n");
-		log.append("Tiger2: " + tiger2string + "\n");
-		log.append("SHA224: " + sha224string + "\n");
-		log.append("SHA256: " + sha256string + "\n");
-		log.append("SHA384: " + sha384string + "\n");
-		log.append("SHA512: " + sha512string + "\n");
-		log.append("Whirlpool 2000: " + whirlpool0string + "\n");
-		log.append("Whirlpool 2001: " + whirlpool1string + "\n");
-		log.append("Whirlpool 2003: " + whirlpoolstring + "\n");
+		for (HashAlgorithm algorithm : result.getAlgorithms())
+			log.append(hashLine(algorithm, result.get(algorithm)) + "\n");
 	}
 
 	private static ImageIcon createImageIcon(String path) {
@@ -326,143 +331,101 @@ public class CRhashingGUI extends JPanel implements ActionListener {
 		}
 	}
 
-	private static byte[] readFileBytes(FileInputStream filestream) throws IOException {
-		String javaVersion = System.getProperty("java.version");
-		if (javaVersion.startsWith("1.") || javaVersion.compareTo("9") < 0) {
-			// Java 8 or below: use manual read loop
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			// 8 MB buffer used
-			byte[] buffer = new byte[8192];
-			int bytesRead;
-			while ((bytesRead = filestream.read(buffer)) != -1) {
-				baos.write(buffer, 0, bytesRead);
+	// hashes a file off the event dispatch thread and logs each hash as soon as
+	// it is ready, so that the checksums show up long before the slow hashes
+	private class HashTask extends SwingWorker<HashResult, String> {
+		private final File source;
+		private final HashSession session;
+		private final long length;
+		private final long startTime = System.nanoTime();
+		private volatile long bytesHashed;
+		private volatile boolean stopped;
+
+		// not SwingWorker.cancel(), which calls done() at once while the file
+		// may still be read: the hasher stops at the next buffer, and done()
+		// follows once doInBackground() has returned
+		private final HashListener listener = new HashListener() {
+			@Override
+			public void bytesHashed(long total) {
+				HashTask.this.bytesHashed = total;
 			}
-			return baos.toByteArray();
-		} else {
-			// Java 9 or above: use readAllBytes()
-			return filestream.readAllBytes();
+
+			@Override
+			public void digestReady(int index, byte[] hash) {
+				publish(hashLine(session.getAlgorithms().get(index), hash));
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return stopped;
+			}
+		};
+
+		HashTask(File source, HashProfile profile) {
+			this.source = source;
+			this.session = sessionFor(profile);
+			this.length = source.length();
 		}
-	}
 
-	private static void getHashes(FileInputStream filestream) {
-		try {
-			byte[] filebytes = readFileBytes(filestream);
-			// generate the hashes/encoded strings and output them to their respective
-			// strings, doing whatever operations are needed to make them display correctly
-			int crc8int = CRC8.calc(filebytes, filebytes.length) & 0xff;
-			crc8string = String.format("%02X", crc8int);
-			int crc16int = e16.update(filebytes);
-			crc16string = String.format("%04X", crc16int);
-			e32.update(filebytes);
-			long crc32long = e32.getValue();
-			crc32string = String.format("%08X", crc32long);
-			ae32.update(filebytes);
-			long adler32long = ae32.getValue();
-			adler32string = String.format("%08X", adler32long);
-			e64.update(filebytes);
-			long crc64long = e64.getValue();
-			crc64string = String.format("%016X", crc64long);
-			md2string = DigestUtils.md2Hex(filebytes).toUpperCase();
-			e4.engineUpdate(filebytes, 0, filebytes.length);
-			byte[] md4hashbytes = e4.engineDigest();
-			md4string = Hexdump.toHexString(md4hashbytes, 0, md4hashbytes.length * 2);
-			exyz.engineUpdate(filebytes, 0, filebytes.length);
-			byte[] xyzhashbytes = exyz.engineDigest();
-			xyzstring = Hexdump.toHexString(xyzhashbytes, 0, xyzhashbytes.length * 2);
-			md5string = DigestUtils.md5Hex(filebytes).toUpperCase();
-			ermd.update(filebytes);
-			byte[] ripemdbytes = ermd.digest();
-			ripemdstring = Hexdump.toHexString(ripemdbytes, 0, ripemdbytes.length * 2);
-			e128.update(filebytes);
-			byte[] ripemd128bytes = e128.digest();
-			ripemd128string = Hexdump.toHexString(ripemd128bytes, 0, ripemd128bytes.length * 2);
-			e160.update(filebytes);
-			byte[] ripemd160bytes = e160.digest();
-			ripemd160string = Hexdump.toHexString(ripemd160bytes, 0, ripemd160bytes.length * 2);
-			e0.update(filebytes);
-			byte[] sha0bytes = e0.digest();
-			sha0string = Hexdump.toHexString(sha0bytes, 0, sha0bytes.length * 2);
-			sha1string = DigestUtils.sha1Hex(filebytes).toUpperCase();
-			sha224string = DigestUtils.sha224Hex(filebytes).toUpperCase();
-			sha256string = DigestUtils.sha256Hex(filebytes).toUpperCase();
-			sha384string = DigestUtils.sha384Hex(filebytes).toUpperCase();
-			sha512string = DigestUtils.sha512Hex(filebytes).toUpperCase();
-			et.update(filebytes);
-			byte[] tigerbytes = et.digest();
-			tigerstring = Hexdump.toHexString(tigerbytes, 0, tigerbytes.length * 2);
-			et2.update(filebytes);
-			byte[] tiger2bytes = et2.digest();
-			tiger2string = Hexdump.toHexString(tiger2bytes, 0, tiger2bytes.length * 2);
-			ew1.update(filebytes);
-			byte[] whirlpool0bytes = ew1.digest();
-			whirlpool0string = Hexdump.toHexString(whirlpool0bytes, 0, whirlpool0bytes.length * 2);
-			ew2.update(filebytes);
-			byte[] whirlpool1bytes = ew2.digest();
-			whirlpool1string = Hexdump.toHexString(whirlpool1bytes, 0, whirlpool1bytes.length * 2);
-			ew.update(filebytes);
-			byte[] whirlpoolbytes = ew.digest();
-			whirlpoolstring = Hexdump.toHexString(whirlpoolbytes, 0, whirlpoolbytes.length * 2);
-			// if the file suddenly doesn't exist, or if an I/O error occurred
-		} catch (IOException e) {
-			log.append("Error when creating file input.\n"); // send this error to the log
-			e.printStackTrace();
+		@Override
+		protected HashResult doInBackground() throws IOException {
+			try (FileInputStream filestream = new FileInputStream(source)) {
+				publish("Open successful!");
+				publish("The hashes/encoded strings of " + source.getName() + " are:");
+				// stream the file through every hash in a single pass, without ever
+				// holding more than a few buffers of it in memory
+				return session.hash(filestream, listener);
+			}
+		}
+
+		void stop() {
+			stopped = true;
+		}
+
+		@Override
+		protected void process(List<String> lines) {
+			if (stopped)
+				return;
+			for (String line : lines)
+				log.append(line + "\n");
+			log.setCaretPosition(log.getDocument().getLength());
+		}
+
+		@Override
+		protected void done() {
+			try {
+				get(); // every hash has already been logged
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// if the user cancelled, the file doesn't exist, or an I/O error occurred
+				if (e.getCause() instanceof CancellationException) {
+					log.append("Hashing of " + source.getName() + " cancelled by user.\n");
+				} else if (e.getCause() instanceof FileNotFoundException) {
+					log.append("Error: File not found.\n");
+				} else {
+					log.append("Error when creating file input.\n"); // send this error to the log
+					logger.severe("Error reading file: " + e.getCause().getMessage());
+				}
+			}
+			hashingDone();
 		}
 	}
 
-	public static void getStringHashes(String string) {
-		byte[] stringbytes = string.getBytes();
-		int crc8int = CRC8.calc(stringbytes, stringbytes.length) & 0xff;
-		crc8string = String.format("%02X", crc8int);
-		int crc16int = e16.update(stringbytes);
-		crc16string = String.format("%04X", crc16int);
-		e32.update(stringbytes);
-		long crc32long = e32.getValue();
-		crc32string = String.format("%08X", crc32long);
-		ae32.update(stringbytes);
-		long adler32long = ae32.getValue();
-		adler32string = String.format("%08X", adler32long);
-		e64.update(stringbytes);
-		long crc64long = e64.getValue();
-		crc64string = String.format("%016X", crc64long);
-		md2string = DigestUtils.md2Hex(stringbytes).toUpperCase();
-		e4.engineUpdate(stringbytes, 0, stringbytes.length);
-		byte[] md4hashbytes = e4.engineDigest();
-		md4string = Hexdump.toHexString(md4hashbytes, 0, md4hashbytes.length * 2);
-		exyz.engineUpdate(stringbytes, 0, stringbytes.length);
-		byte[] xyzhashbytes = exyz.engineDigest();
-		xyzstring = Hexdump.toHexString(xyzhashbytes, 0, xyzhashbytes.length * 2);
-		md5string = DigestUtils.md5Hex(stringbytes).toUpperCase();
-		ermd.update(stringbytes);
-		byte[] ripemdbytes = ermd.digest();
-		ripemdstring = Hexdump.toHexString(ripemdbytes, 0, ripemdbytes.length * 2);
-		e128.update(stringbytes);
-		byte[] ripemd128bytes = e128.digest();
-		ripemd128string = Hexdump.toHexString(ripemd128bytes, 0, ripemd128bytes.length * 2);
-		e160.update(stringbytes);
-		byte[] ripemd160bytes = e160.digest();
-		ripemd160string = Hexdump.toHexString(ripemd160bytes, 0, ripemd160bytes.length * 2);
-		e0.update(stringbytes);
-		byte[] sha0bytes = e0.digest();
-		sha0string = Hexdump.toHexString(sha0bytes, 0, sha0bytes.length * 2);
-		sha1string = DigestUtils.sha1Hex(stringbytes).toUpperCase();
-		sha224string = DigestUtils.sha224Hex(stringbytes).toUpperCase();
-		sha256string = DigestUtils.sha256Hex(stringbytes).toUpperCase();
-		sha384string = DigestUtils.sha384Hex(stringbytes).toUpperCase();
-		sha512string = DigestUtils.sha512Hex(stringbytes).toUpperCase();
-		et.update(stringbytes);
-		byte[] tigerbytes = et.digest();
-		tigerstring = Hexdump.toHexString(tigerbytes, 0, tigerbytes.length * 2);
-		et2.update(stringbytes);
-		byte[] tiger2bytes = et2.digest();
-		tiger2string = Hexdump.toHexString(tiger2bytes, 0, tiger2bytes.length * 2);
-		ew1.update(stringbytes);
-		byte[] whirlpool0bytes = ew1.digest();
-		whirlpool0string = Hexdump.toHexString(whirlpool0bytes, 0, whirlpool0bytes.length * 2);
-		ew2.update(stringbytes);
-		byte[] whirlpool1bytes = ew2.digest();
-		whirlpool1string = Hexdump.toHexString(whirlpool1bytes, 0, whirlpool1bytes.length * 2);
-		ew.update(stringbytes);
-		byte[] whirlpoolbytes = ew.digest();
-		whirlpoolstring = Hexdump.toHexString(whirlpoolbytes, 0, whirlpoolbytes.length * 2);
+	private static synchronized HashSession sessionFor(HashProfile profile) {
+		return sessions.computeIfAbsent(profile, p -> new HashSession(p, hasher));
+	}
+
+	// TTH roots are usually quoted in Base32, so show that as well
+	private static String hashLine(HashAlgorithm algorithm, byte[] hash) {
+		StringBuilder line = new StringBuilder(algorithm.getLabel()).append(": ");
+		HexFormatter.UPPER.append(line, hash);
+		if (algorithm == HashAlgorithm.TTH)
+			line.append(" (Base32: ").append(TigerTree.toBase32(hash)).append(')');
+		return line.toString();
+	}
+
+	public static HashResult getStringHashes(String string, HashProfile profile) {
+		return sessionFor(profile).hash(string.getBytes());
 	}
 }
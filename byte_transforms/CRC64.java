@@ -10,15 +10,34 @@
 // This file has been slightly modified, but is otherwise as originally written by Lasse Collin
 package byte_transforms;
 
-public class CRC64 {
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+import rawr.util.Checksums;
+
+public class CRC64 implements Checksum {
 	
     private static final long POLY = 0xC96C5795D7870F42L;
-    private static final long[] crcTable = new long[256];
+
+    // Slicing-by-8 tables: crcTable[0] is the classic byte-at-a-time table,
+    // and crcTable[k][b] is the CRC of byte b followed by k zero bytes, so
+    // that eight input bytes can be folded in with eight independent lookups
+    private static final long[][] crcTable = new long[8][256];
+
+    // Read eight bytes at any offset of a byte[] or ByteBuffer as one
+    // little-endian long, whatever the buffer's own byte order
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LONG_LE =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
 
     private long crc = -1;
 
     static {
-        for (int b = 0; b < crcTable.length; ++b) {
+        for (int b = 0; b < 256; ++b) {
                 long r = b;
                 for (int i = 0; i < 8; ++i) {
                         if ((r & 1) == 1)
@@ -27,37 +46,102 @@ public class CRC64 {
                                 r >>>= 1;
                 }
 
-                crcTable[b] = r;
+                crcTable[0][b] = r;
         }
+
+        for (int k = 1; k < 8; ++k)
+            for (int b = 0; b < 256; ++b) {
+                long r = crcTable[k - 1][b];
+                crcTable[k][b] = (r >>> 8) ^ crcTable[0][(int) r & 0xFF];
+            }
     }
 
     public CRC64() {
     	// prevent instantiation	
     }
 
+    @Override
+    public void update(int b) {
+        update((byte) b);
+    }
+
     public void update(byte b) {
-        reset();
-        crc = crcTable[(b ^ (int)crc) & 0xFF] ^ (crc >>> 8);
+        crc = crcTable[0][(b ^ (int)crc) & 0xFF] ^ (crc >>> 8);
     }
 
+    @Override
     public void update(byte[] buf) {
-        reset();
         update(buf, 0, buf.length);
     }
 
+    @Override
     public void update(byte[] buf, int off, int len) {
-        reset();
-        int end = off + len;
+        if (off < 0 || len < 0 || off > buf.length - len)
+            throw new ArrayIndexOutOfBoundsException();
+
+        long c = crc;
+
+        for (; len >= 8; off += 8, len -= 8)
+            c = slice8(c ^ (long) LONG_LE.get(buf, off));
 
-        while (off < end)
-            crc = crcTable[(buf[off++] ^ (int)crc) & 0xFF] ^ (crc >>> 8);
+        while (len-- > 0)
+            c = crcTable[0][(buf[off++] ^ (int)c) & 0xFF] ^ (c >>> 8);
+
+        crc = c;
     }
 
+    // Direct and mapped buffers are read in place, eight bytes at a time
+    @Override
+    public void update(ByteBuffer buf) {
+        if (buf.hasArray()) {
+            update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            buf.position(buf.limit());
+            return;
+        }
+
+        int pos = buf.position();
+        int end = buf.limit();
+        long c = crc;
+
+        for (; end - pos >= 8; pos += 8)
+            c = slice8(c ^ (long) BUFFER_LONG_LE.get(buf, pos));
+
+        while (pos < end)
+            c = crcTable[0][(buf.get(pos++) ^ (int)c) & 0xFF] ^ (c >>> 8);
+
+        crc = c;
+        buf.position(end);
+    }
+
+    private static long slice8(long v) {
+        return crcTable[7][(int) v & 0xFF]
+                ^ crcTable[6][(int) (v >>> 8) & 0xFF]
+                ^ crcTable[5][(int) (v >>> 16) & 0xFF]
+                ^ crcTable[4][(int) (v >>> 24) & 0xFF]
+                ^ crcTable[3][(int) (v >>> 32) & 0xFF]
+                ^ crcTable[2][(int) (v >>> 40) & 0xFF]
+                ^ crcTable[1][(int) (v >>> 48) & 0xFF]
+                ^ crcTable[0][(int) (v >>> 56)];
+    }
+
+    @Override
     public void reset() {
         crc = -1;
     }
 
+    @Override
     public long getValue() {
         return ~crc;
     }
+
+    // Resume a computation from a value returned by getValue()
+    public void setValue(long value) {
+        crc = ~value;
+    }
+
+    // Combine the CRCs of two consecutive blocks into the CRC of both,
+    // without reading the data again
+    public static long combine(long crcA, long crcB, long lengthB) {
+        return Checksums.combineCrc(crcA, crcB, lengthB, 64, Long.reverse(POLY), true);
+    }
 }
@@ -1,8 +1,22 @@
 package com.xyz;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.*;
 
 public class XYZMessageDigest extends MessageDigest implements Cloneable {
+	// Whole words are read big-endian straight from the input, two at a time
+	private static final VarHandle INT_BE =
+			MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BE =
+			MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_INT_BE =
+			MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_LONG_BE =
+			MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
 	private int hash;
 	private int store;
 	private int nBytes;
@@ -57,9 +71,77 @@ public class XYZMessageDigest extends MessageDigest implements Cloneable {
 		}
 	}
 
+	// Bytes are taken one at a time only until the current word is complete
+	// and after the last whole word; the words in between are XORed together
+	// directly
 	public void engineUpdate(byte[] b, int offset, int length) {
-		for (int i = 0; i < length; i++)
-			engineUpdate(b[i + offset]);
+		if (offset < 0 || length < 0 || offset > b.length - length)
+			throw new ArrayIndexOutOfBoundsException();
+		int end = offset + length;
+		while (nBytes != 0 && offset < end)
+			engineUpdate(b[offset++]);
+		int words = (end - offset) >>> 2;
+		if (words > 0) {
+			long pairs = 0;
+			for (int stop = offset + (words >>> 1 << 3); offset < stop; offset += 8)
+				pairs ^= (long) LONG_BE.get(b, offset);
+			int x = (int) (pairs >>> 32) ^ (int) pairs;
+			if ((words & 1) != 0) {
+				x ^= (int) INT_BE.get(b, offset);
+				offset += 4;
+			}
+			hash ^= fold(x, words);
+		}
+		while (offset < end)
+			engineUpdate(b[offset++]);
+	}
+
+	// Direct and mapped buffers are read in place, like arrays
+	@Override
+	protected void engineUpdate(ByteBuffer input) {
+		if (input.hasArray()) {
+			super.engineUpdate(input);
+			return;
+		}
+		int pos = input.position();
+		int end = input.limit();
+		while (nBytes != 0 && pos < end)
+			engineUpdate(input.get(pos++));
+		int words = (end - pos) >>> 2;
+		if (words > 0) {
+			long pairs = 0;
+			for (int stop = pos + (words >>> 1 << 3); pos < stop; pos += 8)
+				pairs ^= (long) BUFFER_LONG_BE.get(input, pos);
+			int x = (int) (pairs >>> 32) ^ (int) pairs;
+			if ((words & 1) != 0) {
+				x ^= (int) BUFFER_INT_BE.get(input, pos);
+				pos += 4;
+			}
+			hash ^= fold(x, words);
+		}
+		while (pos < end)
+			engineUpdate(input.get(pos++));
+		input.position(end);
+	}
+
+	// The XOR of a run of words, given the XOR x of their raw values: each
+	// word has its low byte forced to 0xff, as in engineUpdate(byte)
+	private static int fold(int x, int words) {
+		return (x & 0xffffff00) | ((words & 1) != 0 ? 0xff : 0);
+	}
+
+	// the state is the running hash, the partial word and its length
+	public byte[] exportState() {
+		return new byte[] { (byte) (hash >>> 24), (byte) (hash >>> 16), (byte) (hash >>> 8), (byte) hash,
+				(byte) (store >>> 24), (byte) (store >>> 16), (byte) (store >>> 8), (byte) store, (byte) nBytes };
+	}
+
+	public void importState(byte[] state) {
+		if (state.length != 9 || state[8] < 0 || state[8] > 3)
+			throw new IllegalArgumentException("Corrupt XYZ state");
+		hash = (state[0] & 0xff) << 24 | (state[1] & 0xff) << 16 | (state[2] & 0xff) << 8 | (state[3] & 0xff);
+		store = (state[4] & 0xff) << 24 | (state[5] & 0xff) << 16 | (state[6] & 0xff) << 8 | (state[7] & 0xff);
+		nBytes = state[8];
 	}
 
 	public void engineReset() {
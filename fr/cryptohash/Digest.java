@@ -2,6 +2,8 @@
 
 package fr.cryptohash;
 
+import java.nio.ByteBuffer;
+
 /**
  * <p>This interface documents the API for a hash function. This
  * interface somewhat mimics the standard {@code
@@ -80,6 +82,14 @@ public interface Digest {
 	 */
 	public void update(byte[] inbuf, int off, int len);
 
+	/**
+	 * Insert the remaining bytes of a buffer. The buffer position
+	 * is advanced to its limit.
+	 *
+	 * @param input   the data buffer
+	 */
+	public void update(ByteBuffer input);
+
 	/**
 	 * Finalize the current hash computation and return the hash value
 	 * in a newly-allocated array. The object is reset.
@@ -135,6 +145,28 @@ public interface Digest {
 	 */
 	public Digest copy();
 
+	/**
+	 * Export the state of the current computation: the chaining
+	 * variables, the unprocessed part of the current block and the
+	 * block count. The exported state can be saved and later given
+	 * to {@link #importState} on a fresh instance of the same class,
+	 * even in another process, to carry on where this one stopped.
+	 * The object is not modified.
+	 *
+	 * @return  the encoded state
+	 */
+	public byte[] exportState();
+
+	/**
+	 * Replace the state of the current computation with one obtained
+	 * from {@link #exportState} on an instance of the same class.
+	 *
+	 * @param state   the encoded state
+	 * @throws IllegalArgumentException  if {@code state} was not
+	 *         exported by this class or is truncated
+	 */
+	public void importState(byte[] state);
+
 	/**
 	 * <p>Return the "block length" for the hash function. This
 	 * value is naturally defined for iterated hash functions
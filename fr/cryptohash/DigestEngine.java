@@ -2,6 +2,15 @@
 
 package fr.cryptohash;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * <p>
  * This class is a template which can be used to implement hash
@@ -59,11 +68,14 @@ public abstract class DigestEngine implements Digest {
 	protected abstract void engineReset();
 
 	/**
-	 * Process one block of data.
+	 * Process one block of data. Full blocks are read straight from
+	 * the caller's array, so {@code data} may be longer than a block
+	 * and must not be modified.
 	 *
-	 * @param data the data block
+	 * @param data the array holding the data block
+	 * @param off  the offset of the block in {@code data}
 	 */
-	protected abstract void processBlock(byte[] data);
+	protected abstract void processBlock(byte[] data, int off);
 
 	/**
 	 * Perform the final padding and store the result in the
@@ -85,6 +97,26 @@ public abstract class DigestEngine implements Digest {
 	 */
 	protected abstract void doInit();
 
+	/**
+	 * Write the chaining variables, for {@link #exportState}.
+	 * Everything else is saved by this class.
+	 *
+	 * @param out the destination
+	 * @throws IOException if {@code out} fails
+	 */
+	protected abstract void writeChaining(DataOutput out)
+		throws IOException;
+
+	/**
+	 * Read the chaining variables written by {@link #writeChaining},
+	 * for {@link #importState}.
+	 *
+	 * @param in the source
+	 * @throws IOException if {@code in} is truncated
+	 */
+	protected abstract void readChaining(DataInput in)
+		throws IOException;
+
 	private int digestLen;
 	private int blockLen;
 	private int inputLen;
@@ -152,7 +184,7 @@ public abstract class DigestEngine implements Digest {
 	public void update(byte input) {
 		inputBuf[inputLen++] = input;
 		if (inputLen == blockLen) {
-			processBlock(inputBuf);
+			processBlock(inputBuf, 0);
 			blockCount++;
 			inputLen = 0;
 		}
@@ -165,7 +197,7 @@ public abstract class DigestEngine implements Digest {
 
 	/** @see Digest */
 	public void update(byte[] input, int offset, int len) {
-		while (len > 0) {
+		if (inputLen > 0) {
 			int copyLen = blockLen - inputLen;
 			if (copyLen > len)
 				copyLen = len;
@@ -174,12 +206,71 @@ public abstract class DigestEngine implements Digest {
 			offset += copyLen;
 			inputLen += copyLen;
 			len -= copyLen;
-			if (inputLen == blockLen) {
-				processBlock(inputBuf);
-				blockCount++;
-				inputLen = 0;
+			if (inputLen < blockLen)
+				return;
+			processBlock(inputBuf, 0);
+			blockCount++;
+			inputLen = 0;
+		}
+		/*
+		 * Whole blocks are processed in place; only the tail
+		 * is copied, to wait for more input.
+		 */
+		while (len >= blockLen) {
+			processBlock(input, offset);
+			blockCount++;
+			offset += blockLen;
+			len -= blockLen;
+		}
+		if (len > 0) {
+			System.arraycopy(input, offset, inputBuf, 0, len);
+			inputLen = len;
+		}
+	}
+
+	/** @see Digest */
+	public void update(ByteBuffer input) {
+		if (input.hasArray()) {
+			update(input.array(), input.arrayOffset()
+				+ input.position(), input.remaining());
+			input.position(input.limit());
+			return;
+		}
+		/*
+		 * Direct and mapped buffers are read with absolute bulk
+		 * gets, one block at a time, into the block buffer; it
+		 * stays in the cache, and no other copy is made.
+		 */
+		int pos = input.position();
+		int len = input.limit() - pos;
+		if (inputLen > 0) {
+			int copyLen = blockLen - inputLen;
+			if (copyLen > len)
+				copyLen = len;
+			input.get(pos, inputBuf, inputLen, copyLen);
+			pos += copyLen;
+			inputLen += copyLen;
+			len -= copyLen;
+			if (inputLen < blockLen) {
+				input.position(pos);
+				return;
 			}
+			processBlock(inputBuf, 0);
+			blockCount++;
+			inputLen = 0;
+		}
+		while (len >= blockLen) {
+			input.get(pos, inputBuf, 0, blockLen);
+			processBlock(inputBuf, 0);
+			blockCount++;
+			pos += blockLen;
+			len -= blockLen;
 		}
+		if (len > 0) {
+			input.get(pos, inputBuf, 0, len);
+			inputLen = len;
+		}
+		input.position(pos + len);
 	}
 
 	/**
@@ -235,6 +326,54 @@ public abstract class DigestEngine implements Digest {
 		return blockCount;
 	}
 
+	/** @see Digest */
+	public byte[] exportState() {
+		try {
+			ByteArrayOutputStream buf = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(buf);
+			out.writeUTF(getClass().getName());
+			out.writeLong(blockCount);
+			out.writeShort(inputLen);
+			out.write(inputBuf, 0, inputLen);
+			writeChaining(out);
+			out.flush();
+			return buf.toByteArray();
+		} catch (IOException e) {
+			// a ByteArrayOutputStream does not fail
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** @see Digest */
+	public void importState(byte[] state) {
+		DataInputStream in = new DataInputStream(
+			new ByteArrayInputStream(state));
+		try {
+			if (!in.readUTF().equals(getClass().getName()))
+				throw new IllegalArgumentException(
+					"state exported by another digest");
+			long count = in.readLong();
+			int len = in.readUnsignedShort();
+			if (count < 0 || len >= blockLen)
+				throw new IllegalArgumentException(
+					"corrupt digest state");
+			in.readFully(inputBuf, 0, len);
+			readChaining(in);
+			if (in.available() != 0)
+				throw new IllegalArgumentException(
+					"corrupt digest state");
+			blockCount = count;
+			inputLen = len;
+		} catch (IOException e) {
+			reset();
+			throw new IllegalArgumentException(
+				"truncated digest state", e);
+		} catch (IllegalArgumentException e) {
+			reset();
+			throw e;
+		}
+	}
+
 	/**
 	 * This function copies the internal buffering state to some
 	 * other instance of a class extending {@code DigestEngine}.
@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * <p>
  * This class implements the RIPEMD digest algorithm under the {@link
@@ -89,6 +93,18 @@ public class RIPEMD extends MDHelper {
     engineReset();
   }
 
+  /** @see DigestEngine */
+  protected void writeChaining(DataOutput out) throws IOException {
+    for (int i = 0; i < currentVal.length; i++)
+      out.writeInt(currentVal[i]);
+  }
+
+  /** @see DigestEngine */
+  protected void readChaining(DataInput in) throws IOException {
+    for (int i = 0; i < currentVal.length; i++)
+      currentVal[i] = in.readInt();
+  }
+
   private static final void encodeLEInt(int val, byte[] buf, int off) {
     buf[off + 0] = (byte) val;
     buf[off + 1] = (byte) (val >>> 8);
@@ -104,7 +120,7 @@ public class RIPEMD extends MDHelper {
   }
 
   /** @see DigestEngine */
-  protected void processBlock(byte[] data) {
+  protected void processBlock(byte[] data, int off) {
     int a1;
 	int b1;
 	int c1;
@@ -121,7 +137,7 @@ public class RIPEMD extends MDHelper {
     d1 = d2 = currentVal[3];
 
     for (int i = 0, j = 0; i < 16; i++, j += 4)
-      x[i] = decodeLEInt(data, j);
+      x[i] = decodeLEInt(data, off + j);
 
     tmp = a1 + (((c1 ^ d1) & b1) ^ d1) + x[0];
     a1 = (tmp << 11) | (tmp >>> (32 - 11));
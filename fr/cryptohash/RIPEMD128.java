@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * <p>
  * This class implements the RIPEMD-128 digest algorithm under the
@@ -91,6 +95,18 @@ public class RIPEMD128 extends MDHelper {
         engineReset();
     }
 
+    /** @see DigestEngine */
+    protected void writeChaining(DataOutput out) throws IOException {
+        for (int i = 0; i < currentVal.length; i++)
+            out.writeInt(currentVal[i]);
+    }
+
+    /** @see DigestEngine */
+    protected void readChaining(DataInput in) throws IOException {
+        for (int i = 0; i < currentVal.length; i++)
+            currentVal[i] = in.readInt();
+    }
+
     private static final void encodeLEInt(int val, byte[] buf, int off) {
         buf[off + 0] = (byte) val;
         buf[off + 1] = (byte) (val >>> 8);
@@ -134,7 +150,7 @@ public class RIPEMD128 extends MDHelper {
     };
 
     /** @see DigestEngine */
-    protected void processBlock(byte[] data) {
+    protected void processBlock(byte[] data, int off) {
         int h0;
         int h1;
         int h2;
@@ -154,7 +170,7 @@ public class RIPEMD128 extends MDHelper {
         h3 = d1 = d2 = currentVal[3];
 
         for (int i = 0, j = 0; i < 16; i++, j += 4)
-            x[i] = decodeLEInt(data, j);
+            x[i] = decodeLEInt(data, off + j);
 
         for (int i = 0; i < 16; i += 4) {
             int t1 = a1 + (b1 ^ c1 ^ d1)
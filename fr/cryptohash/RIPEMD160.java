@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * <p>
  * This class implements the RIPEMD-160 digest algorithm under the
@@ -93,6 +97,18 @@ public class RIPEMD160 extends MDHelper {
 		engineReset();
 	}
 
+	/** @see DigestEngine */
+	protected void writeChaining(DataOutput out) throws IOException {
+		for (int i = 0; i < currentVal.length; i++)
+			out.writeInt(currentVal[i]);
+	}
+
+	/** @see DigestEngine */
+	protected void readChaining(DataInput in) throws IOException {
+		for (int i = 0; i < currentVal.length; i++)
+			currentVal[i] = in.readInt();
+	}
+
 	/**
 	 * Encode the 32-bit word {@code val} into the array
 	 * {@code buf} at offset {@code off}, in little-endian
@@ -157,7 +173,7 @@ public class RIPEMD160 extends MDHelper {
 	};
 
 	/** @see DigestEngine */
-	protected void processBlock(byte[] data) {
+	protected void processBlock(byte[] data, int off) {
 		int h0;
 		int h1;
 		int h2;
@@ -181,7 +197,7 @@ public class RIPEMD160 extends MDHelper {
 		h4 = e1 = e2 = currentVal[4];
 
 		for (int i = 0, j = 0; i < 16; i++, j += 4)
-			x[i] = decodeLEInt(data, j);
+			x[i] = decodeLEInt(data, off + j);
 
 		for (int i = 0; i < 16; i++) {
 			int t1 = a1 + (b1 ^ c1 ^ d1) + x[i];
@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * <p>
  * This class implements the SHA-0 digest algorithm under the {@link
@@ -92,6 +96,18 @@ public class SHA0 extends MDHelper {
 		engineReset();
 	}
 
+	/** @see DigestEngine */
+	protected void writeChaining(DataOutput out) throws IOException {
+		for (int i = 0; i < currentVal.length; i++)
+			out.writeInt(currentVal[i]);
+	}
+
+	/** @see DigestEngine */
+	protected void readChaining(DataInput in) throws IOException {
+		for (int i = 0; i < currentVal.length; i++)
+			currentVal[i] = in.readInt();
+	}
+
 	/**
 	 * Encode the 32-bit word {@code val} into the array
 	 * {@code buf} at offset {@code off}, in big-endian
@@ -123,74 +139,74 @@ public class SHA0 extends MDHelper {
 				| (buf[off + 3] & 0xFF);
 	}
 
-	protected void processBlock(byte[] data) {
+	protected void processBlock(byte[] data, int off) {
 		int a = currentVal[0];
 		int b = currentVal[1];
 		int c = currentVal[2];
 		int d = currentVal[3];
 		int e = currentVal[4];
 
-		int w0 = decodeBEInt(data, 0);
+		int w0 = decodeBEInt(data, off);
 		e = ((a << 5) | (a >>> 27)) + ((b & c) | (~b & d))
 				+ e + w0 + 0x5A827999;
 		b = (b << 30) | (b >>> 2);
-		int w1 = decodeBEInt(data, 4);
+		int w1 = decodeBEInt(data, off + 4);
 		d = ((e << 5) | (e >>> 27)) + ((a & b) | (~a & c))
 				+ d + w1 + 0x5A827999;
 		a = (a << 30) | (a >>> 2);
-		int w2 = decodeBEInt(data, 8);
+		int w2 = decodeBEInt(data, off + 8);
 		c = ((d << 5) | (d >>> 27)) + ((e & a) | (~e & b))
 				+ c + w2 + 0x5A827999;
 		e = (e << 30) | (e >>> 2);
-		int w3 = decodeBEInt(data, 12);
+		int w3 = decodeBEInt(data, off + 12);
 		b = ((c << 5) | (c >>> 27)) + ((d & e) | (~d & a))
 				+ b + w3 + 0x5A827999;
 		d = (d << 30) | (d >>> 2);
-		int w4 = decodeBEInt(data, 16);
+		int w4 = decodeBEInt(data, off + 16);
 		a = ((b << 5) | (b >>> 27)) + ((c & d) | (~c & e))
 				+ a + w4 + 0x5A827999;
 		c = (c << 30) | (c >>> 2);
-		int w5 = decodeBEInt(data, 20);
+		int w5 = decodeBEInt(data, off + 20);
 		e = ((a << 5) | (a >>> 27)) + ((b & c) | (~b & d))
 				+ e + w5 + 0x5A827999;
 		b = (b << 30) | (b >>> 2);
-		int w6 = decodeBEInt(data, 24);
+		int w6 = decodeBEInt(data, off + 24);
 		d = ((e << 5) | (e >>> 27)) + ((a & b) | (~a & c))
 				+ d + w6 + 0x5A827999;
 		a = (a << 30) | (a >>> 2);
-		int w7 = decodeBEInt(data, 28);
+		int w7 = decodeBEInt(data, off + 28);
 		c = ((d << 5) | (d >>> 27)) + ((e & a) | (~e & b))
 				+ c + w7 + 0x5A827999;
 		e = (e << 30) | (e >>> 2);
-		int w8 = decodeBEInt(data, 32);
+		int w8 = decodeBEInt(data, off + 32);
 		b = ((c << 5) | (c >>> 27)) + ((d & e) | (~d & a))
 				+ b + w8 + 0x5A827999;
 		d = (d << 30) | (d >>> 2);
-		int w9 = decodeBEInt(data, 36);
+		int w9 = decodeBEInt(data, off + 36);
 		a = ((b << 5) | (b >>> 27)) + ((c & d) | (~c & e))
 				+ a + w9 + 0x5A827999;
 		c = (c << 30) | (c >>> 2);
-		int w10 = decodeBEInt(data, 40);
+		int w10 = decodeBEInt(data, off + 40);
 		e = ((a << 5) | (a >>> 27)) + ((b & c) | (~b & d))
 				+ e + w10 + 0x5A827999;
 		b = (b << 30) | (b >>> 2);
-		int w11 = decodeBEInt(data, 44);
+		int w11 = decodeBEInt(data, off + 44);
 		d = ((e << 5) | (e >>> 27)) + ((a & b) | (~a & c))
 				+ d + w11 + 0x5A827999;
 		a = (a << 30) | (a >>> 2);
-		int w12 = decodeBEInt(data, 48);
+		int w12 = decodeBEInt(data, off + 48);
 		c = ((d << 5) | (d >>> 27)) + ((e & a) | (~e & b))
 				+ c + w12 + 0x5A827999;
 		e = (e << 30) | (e >>> 2);
-		int w13 = decodeBEInt(data, 52);
+		int w13 = decodeBEInt(data, off + 52);
 		b = ((c << 5) | (c >>> 27)) + ((d & e) | (~d & a))
 				+ b + w13 + 0x5A827999;
 		d = (d << 30) | (d >>> 2);
-		int w14 = decodeBEInt(data, 56);
+		int w14 = decodeBEInt(data, off + 56);
 		a = ((b << 5) | (b >>> 27)) + ((c & d) | (~c & e))
 				+ a + w14 + 0x5A827999;
 		c = (c << 30) | (c >>> 2);
-		int w15 = decodeBEInt(data, 60);
+		int w15 = decodeBEInt(data, off + 60);
 		e = ((a << 5) | (a >>> 27)) + ((b & c) | (~b & d))
 				+ e + w15 + 0x5A827999;
 		b = (b << 30) | (b >>> 2);
@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * This class implements Tiger and Tiger2, which differ only by the
  * padding.
@@ -614,6 +618,20 @@ abstract class TigerCore extends MDHelper {
 		engineReset();
 	}
 
+	/** @see DigestEngine */
+	protected void writeChaining(DataOutput out) throws IOException {
+		out.writeLong(currentA);
+		out.writeLong(currentB);
+		out.writeLong(currentC);
+	}
+
+	/** @see DigestEngine */
+	protected void readChaining(DataInput in) throws IOException {
+		currentA = in.readLong();
+		currentB = in.readLong();
+		currentC = in.readLong();
+	}
+
 	/**
 	 * Encode the 64-bit word {@code val} into the array
 	 * {@code buf} at offset {@code off}, in little-endian
@@ -668,7 +686,7 @@ abstract class TigerCore extends MDHelper {
 	}
 
 	/** @see DigestEngine */
-	protected void processBlock(byte[] data) {
+	protected void processBlock(byte[] data, int off) {
 		/*
 		 * Note: we use external methods for the table lookups.
 		 * Inlining those methods yields slightly better performance
@@ -679,14 +697,14 @@ abstract class TigerCore extends MDHelper {
 		long a = currentA;
 		long b = currentB;
 		long c = currentC;
-		long x0 = decodeLELong(data, 0);
-		long x1 = decodeLELong(data, 8);
-		long x2 = decodeLELong(data, 16);
-		long x3 = decodeLELong(data, 24);
-		long x4 = decodeLELong(data, 32);
-		long x5 = decodeLELong(data, 40);
-		long x6 = decodeLELong(data, 48);
-		long x7 = decodeLELong(data, 56);
+		long x0 = decodeLELong(data, off);
+		long x1 = decodeLELong(data, off + 8);
+		long x2 = decodeLELong(data, off + 16);
+		long x3 = decodeLELong(data, off + 24);
+		long x4 = decodeLELong(data, off + 32);
+		long x5 = decodeLELong(data, off + 40);
+		long x6 = decodeLELong(data, off + 48);
+		long x7 = decodeLELong(data, off + 56);
 
 		c ^= x0;
 		a -= lookupLow(c);
@@ -2,6 +2,10 @@
 
 package fr.cryptohash;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * <p>
  * This class implements the core operations for the Whirlpool digest
@@ -127,6 +131,30 @@ abstract class WhirlpoolCore extends MDHelper {
 		engineReset();
 	}
 
+	/** @see DigestEngine */
+	protected void writeChaining(DataOutput out) throws IOException {
+		out.writeLong(state0);
+		out.writeLong(state1);
+		out.writeLong(state2);
+		out.writeLong(state3);
+		out.writeLong(state4);
+		out.writeLong(state5);
+		out.writeLong(state6);
+		out.writeLong(state7);
+	}
+
+	/** @see DigestEngine */
+	protected void readChaining(DataInput in) throws IOException {
+		state0 = in.readLong();
+		state1 = in.readLong();
+		state2 = in.readLong();
+		state3 = in.readLong();
+		state4 = in.readLong();
+		state5 = in.readLong();
+		state6 = in.readLong();
+		state7 = in.readLong();
+	}
+
 	/**
 	 * Decode a 64-bit little-endian integer.
 	 *
@@ -165,15 +193,15 @@ abstract class WhirlpoolCore extends MDHelper {
 
 	/** @see DigestEngine */
 	@Override
-	protected void processBlock(byte[] buffer) {
-		long message0 = decodeLELong(buffer, 0);
-		long message1 = decodeLELong(buffer, 8);
-		long message2 = decodeLELong(buffer, 16);
-		long message3 = decodeLELong(buffer, 24);
-		long message4 = decodeLELong(buffer, 32);
-		long message5 = decodeLELong(buffer, 40);
-		long message6 = decodeLELong(buffer, 48);
-		long message7 = decodeLELong(buffer, 56);
+	protected void processBlock(byte[] buffer, int off) {
+		long message0 = decodeLELong(buffer, off);
+		long message1 = decodeLELong(buffer, off + 8);
+		long message2 = decodeLELong(buffer, off + 16);
+		long message3 = decodeLELong(buffer, off + 24);
+		long message4 = decodeLELong(buffer, off + 32);
+		long message5 = decodeLELong(buffer, off + 40);
+		long message6 = decodeLELong(buffer, off + 48);
+		long message7 = decodeLELong(buffer, off + 56);
 
 		long savedMessage0 = message0;
 		long savedMessage1 = message1;
@@ -1,19 +1,158 @@
 package godlikeblock.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import rawr.util.Checksums;
+
 public class CRC16 {
-	public int update(byte[] bArr) {
-		int crc = 0;
-		for (byte b : bArr) {
-			crc ^= b;
-			for (int i = 8; i != 0; i--) {
-				if ((crc & 1) != 0) {
-					crc >>= 1;
-					crc ^= 0xA001;
-				} else {
-					crc >>= 1;
-				}
+	// The register is an int that is shifted arithmetically and has each
+	// input byte XORed in sign-extended, so its upper 16 bits are always all
+	// zeros or all ones and feed back into the low 16 bits. The tables below
+	// are generated from that original bit loop, so every result matches it.
+
+	// crcTable[b] is the register after eight shifts of b: one byte at a time
+	private static final int[] crcTable = new int[256];
+
+	// Slicing-by-8 tables: sliceTable[k][b] is the register after the byte b
+	// (sign-extended) followed by k zero bytes, for k < 7. The register
+	// itself goes through eight shifts: sliceTable[7] for its low byte,
+	// sliceTable[8] for its high byte and SIGN for the upper bits.
+	private static final int[][] sliceTable = new int[9][256];
+	private static final int SIGN;
+
+	// the register's zero-byte operator powers, for combine()
+	private static final long[][] zeroTable;
+
+	private static final VarHandle LONG_LE =
+			MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_LONG_LE =
+			MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private int crc;
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			crcTable[b] = shift(b);
+			sliceTable[0][b] = shift((byte) b);
+			for (int k = 1; k < 7; k++)
+				sliceTable[k][b] = shift(sliceTable[k - 1][b]);
+			int lo = b, hi = b << 8;
+			for (int i = 0; i < 8; i++) {
+				lo = shift(lo);
+				hi = shift(hi);
+			}
+			sliceTable[7][b] = lo;
+			sliceTable[8][b] = hi;
+		}
+		int sign = 0xffff0000;
+		for (int i = 0; i < 8; i++)
+			sign = shift(sign);
+		SIGN = sign;
+
+		long[] zeroByte = new long[32];
+		for (int i = 0; i < 32; i++)
+			zeroByte[i] = shift(1 << i) & 0xffffffffL;
+		zeroTable = Checksums.zeroOperators(zeroByte);
+	}
+
+	// One byte's worth of the original bit loop
+	private static int shift(int crc) {
+		for (int i = 8; i != 0; i--) {
+			if ((crc & 1) != 0) {
+				crc >>= 1;
+				crc ^= 0xA001;
+			} else {
+				crc >>= 1;
 			}
 		}
-		crc &= 0xffff;
 		return crc;
 	}
+
+	// One-shot: always starts from 0 and leaves the running value alone
+	public int update(byte[] bArr) {
+		return update(0, bArr, 0, bArr.length) & 0xffff;
+	}
+
+	// Streaming variant: unlike update(byte[]), this carries the running
+	// value over from one call to the next until reset() is called
+	public void update(byte[] bArr, int off, int len) {
+		if (off < 0 || len < 0 || off > bArr.length - len)
+			throw new ArrayIndexOutOfBoundsException();
+		crc = update(crc, bArr, off, len);
+	}
+
+	// Streaming, like update(byte[], int, int). Direct and mapped buffers are
+	// read in place, eight bytes at a time; the position ends at the limit.
+	public void update(ByteBuffer buf) {
+		if (buf.hasArray()) {
+			update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+			buf.position(buf.limit());
+			return;
+		}
+		int pos = buf.position();
+		int end = buf.limit();
+		int c = crc;
+		for (; end - pos >= 8; pos += 8)
+			c = slice8(c, (long) BUFFER_LONG_LE.get(buf, pos));
+		while (pos < end) {
+			int x = c ^ buf.get(pos++);
+			c = (x >> 8) ^ crcTable[x & 0xff];
+		}
+		crc = c;
+		buf.position(end);
+	}
+
+	private static int update(int c, byte[] bArr, int off, int len) {
+		for (; len >= 8; off += 8, len -= 8)
+			c = slice8(c, (long) LONG_LE.get(bArr, off));
+		while (len-- > 0) {
+			int x = c ^ bArr[off++];
+			c = (x >> 8) ^ crcTable[x & 0xff];
+		}
+		return c;
+	}
+
+	// Eight bytes at once, v holding them in little-endian order
+	private static int slice8(int c, long v) {
+		int x = c ^ (byte) v;
+		return sliceTable[7][x & 0xff]
+				^ sliceTable[8][(x >>> 8) & 0xff]
+				^ (x >> 31 & SIGN)
+				^ sliceTable[6][(int) (v >>> 8) & 0xff]
+				^ sliceTable[5][(int) (v >>> 16) & 0xff]
+				^ sliceTable[4][(int) (v >>> 24) & 0xff]
+				^ sliceTable[3][(int) (v >>> 32) & 0xff]
+				^ sliceTable[2][(int) (v >>> 40) & 0xff]
+				^ sliceTable[1][(int) (v >>> 48) & 0xff]
+				^ sliceTable[0][(int) (v >>> 56)];
+	}
+
+	// Combine the registers (getState()) of two consecutive blocks into the
+	// register for both, without reading the data again. stateB must have
+	// started from 0. The arithmetic shift makes this no standard CRC
+	// register, so its own zero-byte operator is used.
+	public static int combine(int stateA, int stateB, long lengthB) {
+		return (int) Checksums.combine(zeroTable, stateA & 0xffffffffL, stateB & 0xffffffffL, lengthB);
+	}
+
+	public int getValue() {
+		return crc & 0xffff;
+	}
+
+	// The whole register, for saving and resuming a computation: the bits
+	// above the low 16 are not always zero and do affect later values
+	public int getState() {
+		return crc;
+	}
+
+	public void setState(int state) {
+		crc = state;
+	}
+
+	public void reset() {
+		crc = 0;
+	}
 }
@@ -5,7 +5,18 @@
 
 package jcifs.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.DigestException;
 import java.security.MessageDigest;
+import java.util.Arrays;
 
 /**
  * Implements the MD4 message digest algorithm in Java.
@@ -29,6 +40,14 @@ public class MD4 extends MessageDigest implements Cloneable {
 
 	private static final int BLOCK_LENGTH = 64; // = 512 / 8
 
+	private static final int DIGEST_LENGTH = 16;
+
+	// message words and the output are little-endian
+	private static final VarHandle INT_LE =
+			MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_INT_LE =
+			MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
 	private int[] context = new int[4];
 
 	private long count;
@@ -103,34 +122,148 @@ public class MD4 extends MessageDigest implements Cloneable {
 			System.arraycopy(input, offset + i, buffer, bufferNdx, len - i);
 	}
 
-	public byte[] engineDigest() {
+	/**
+	 * Consume the remaining bytes of {@code input}. Heap buffers are read
+	 * through their array, and direct (and mapped) buffers in place, so
+	 * neither is copied to a temporary array first.
+	 *
+	 * @param input the input bytes
+	 */
+	@Override
+	protected void engineUpdate(ByteBuffer input) {
+		if (input.hasArray()) {
+			super.engineUpdate(input);
+			return;
+		}
+		int pos = input.position();
+		int len = input.remaining();
 		int bufferNdx = (int) (count % BLOCK_LENGTH);
-		int padLen = (bufferNdx < 56) ? (56 - bufferNdx) : (120 - bufferNdx);
+		count += len;
+		int partLen = BLOCK_LENGTH - bufferNdx;
+		int i = 0;
+		if (len >= partLen) {
+			input.get(pos, buffer, bufferNdx, partLen);
+
+			transform(buffer, 0);
+
+			for (i = partLen; i + BLOCK_LENGTH - 1 < len; i += BLOCK_LENGTH)
+				transform(input, pos + i);
+			bufferNdx = 0;
+		}
+		if (i < len)
+			input.get(pos + i, buffer, bufferNdx, len - i);
+		input.position(input.limit());
+	}
+
+	public byte[] engineDigest() {
+		byte[] result = new byte[DIGEST_LENGTH];
+		finish(result, 0);
+		return result;
+	}
 
-		byte[] tail = new byte[padLen + 8];
-		tail[0] = (byte) 0x80;
+	/**
+	 * Complete the computation into {@code buf}, without allocating, and
+	 * reset.
+	 *
+	 * @param buf    the output buffer
+	 * @param offset where the digest starts in {@code buf}
+	 * @param len    the space left in {@code buf} for the digest
+	 * @return the digest length, 16
+	 * @throws DigestException if fewer than 16 bytes are available
+	 */
+	@Override
+	protected int engineDigest(byte[] buf, int offset, int len) throws DigestException {
+		if (len < DIGEST_LENGTH)
+			throw new DigestException("MD4 needs " + DIGEST_LENGTH + " bytes of output space, got " + len);
+		finish(buf, offset);
+		return DIGEST_LENGTH;
+	}
 
-		for (int i = 0; i < 8; i++)
-			tail[padLen + i] = (byte) ((count * 8) >>> (8 * i));
+	@Override
+	protected int engineGetDigestLength() {
+		return DIGEST_LENGTH;
+	}
 
-		engineUpdate(tail, 0, tail.length);
+	// pad the last block in place, then write the chaining variables out
+	private void finish(byte[] out, int offset) {
+		int bufferNdx = (int) (count % BLOCK_LENGTH);
+		long bits = count << 3;
+
+		buffer[bufferNdx++] = (byte) 0x80;
+		if (bufferNdx > 56) {
+			Arrays.fill(buffer, bufferNdx, BLOCK_LENGTH, (byte) 0);
+			transform(buffer, 0);
+			bufferNdx = 0;
+		}
+		Arrays.fill(buffer, bufferNdx, 56, (byte) 0);
+		INT_LE.set(buffer, 56, (int) bits);
+		INT_LE.set(buffer, 60, (int) (bits >>> 32));
+		transform(buffer, 0);
 
-		byte[] result = new byte[16];
 		for (int i = 0; i < 4; i++)
-			for (int j = 0; j < 4; j++)
-				result[i * 4 + j] = (byte) (context[i] >>> (8 * j));
+			INT_LE.set(out, offset + 4 * i, context[i]);
 
 		engineReset();
-		return result;
+	}
+
+	/**
+	 * Export the state of the current computation (chaining variables,
+	 * byte count and the unprocessed part of the current block), so that
+	 * it can be resumed later with {@link #importState}.
+	 *
+	 * @return the encoded state
+	 */
+	public byte[] exportState() {
+		try {
+			ByteArrayOutputStream buf = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(buf);
+			out.writeLong(count);
+			for (int i = 0; i < 4; i++)
+				out.writeInt(context[i]);
+			out.write(buffer, 0, (int) (count % BLOCK_LENGTH));
+			out.flush();
+			return buf.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Replace the state of the current computation with one obtained from
+	 * {@link #exportState}.
+	 *
+	 * @param state the encoded state
+	 * @throws IllegalArgumentException if {@code state} is corrupt
+	 */
+	public void importState(byte[] state) {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+		try {
+			long n = in.readLong();
+			if (n < 0 || state.length != 8 + 16 + n % BLOCK_LENGTH)
+				throw new IllegalArgumentException("Corrupt MD4 state");
+			for (int i = 0; i < 4; i++)
+				context[i] = in.readInt();
+			in.readFully(buffer, 0, (int) (n % BLOCK_LENGTH));
+			count = n;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Corrupt MD4 state", e);
+		}
 	}
 
 	private void transform(byte[] block, int offset) {
-		for (int i = 0; i < 16; i++)
-			wordBuffer[i] = (block[offset++] & 0xFF) |
-					(block[offset++] & 0xFF) << 8 |
-					(block[offset++] & 0xFF) << 16 |
-					(block[offset++] & 0xFF) << 24;
+		for (int i = 0; i < 16; i++, offset += 4)
+			wordBuffer[i] = (int) INT_LE.get(block, offset);
+		transform();
+	}
+
+	private void transform(ByteBuffer block, int offset) {
+		for (int i = 0; i < 16; i++, offset += 4)
+			wordBuffer[i] = (int) BUFFER_INT_LE.get(block, offset);
+		transform();
+	}
 
+	// one round of compression over the decoded words in wordBuffer
+	private void transform() {
 		int a = context[0];
 		int b = context[1];
 		int c = context[2];
@@ -17,6 +17,8 @@
 
 package org.apache.commons.codec.binary;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
@@ -232,6 +234,90 @@ public class Hex implements BinaryEncoder, BinaryDecoder {
 		return encodeHex(data.array(), toDigits);
 	}
 
+	/**
+	 * Converts a range of an array of bytes into hexadecimal characters, written
+	 * into a caller's array in the final case in a single pass.
+	 *
+	 * @param data
+	 *                    a byte[] to convert to Hex characters
+	 * @param dataOffset
+	 *                    the position in <code>data</code> to start converting from
+	 * @param dataLen
+	 *                    the number of bytes from <code>dataOffset</code> to convert
+	 * @param toLowerCase
+	 *                    <code>true</code> converts to lowercase,
+	 *                    <code>false</code> to uppercase
+	 * @param out
+	 *                    a char[] which receives <code>2 * dataLen</code> hexadecimal
+	 *                    characters
+	 * @param outOffset
+	 *                    the position within <code>out</code> at which to start
+	 *                    writing
+	 * @return the position in <code>out</code> just after the last character
+	 * @throws IndexOutOfBoundsException
+	 *                                   if the range is outside <code>data</code>,
+	 *                                   or <code>out</code> has less room
+	 */
+	public static int encodeHex(final byte[] data, final int dataOffset, final int dataLen,
+			final boolean toLowerCase, final char[] out, final int outOffset) {
+		if (dataOffset < 0 || dataLen < 0 || dataOffset > data.length - dataLen
+				|| outOffset < 0 || outOffset > out.length || dataLen > (out.length - outOffset) >> 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		final char[] toDigits = toLowerCase ? DIGITS_LOWER : DIGITS_UPPER;
+		int j = outOffset;
+		for (int i = dataOffset; i < dataOffset + dataLen; i++) {
+			final int d = data[i] & 0xFF;
+			out[j++] = toDigits[d >>> 4];
+			out[j++] = toDigits[d & 0x0F];
+		}
+		return j;
+	}
+
+	/**
+	 * Streams a range of an array of bytes as hexadecimal characters to an
+	 * {@link Appendable}, such as a {@link Writer} or a {@link StringBuilder},
+	 * without building an intermediate String. Output to a Writer goes through a
+	 * small chunk buffer rather than one call per character.
+	 *
+	 * @param data
+	 *                    a byte[] to convert to Hex characters
+	 * @param dataOffset
+	 *                    the position in <code>data</code> to start converting from
+	 * @param dataLen
+	 *                    the number of bytes from <code>dataOffset</code> to convert
+	 * @param toLowerCase
+	 *                    <code>true</code> converts to lowercase,
+	 *                    <code>false</code> to uppercase
+	 * @param out
+	 *                    receives <code>2 * dataLen</code> hexadecimal characters
+	 * @throws IOException
+	 *                     if <code>out</code> fails
+	 */
+	public static void encodeHex(final byte[] data, final int dataOffset, final int dataLen,
+			final boolean toLowerCase, final Appendable out) throws IOException {
+		if (dataOffset < 0 || dataLen < 0 || dataOffset > data.length - dataLen) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (out instanceof Writer) {
+			final char[] chunk = new char[Math.min(dataLen, 512) << 1];
+			for (int i = dataOffset, end = dataOffset + dataLen; i < end;) {
+				final int n = Math.min(end - i, chunk.length >> 1);
+				((Writer) out).write(chunk, 0, encodeHex(data, i, n, toLowerCase, chunk, 0));
+				i += n;
+			}
+			return;
+		}
+		if (out instanceof StringBuilder) {
+			((StringBuilder) out).ensureCapacity(((StringBuilder) out).length() + (dataLen << 1));
+		}
+		final char[] toDigits = toLowerCase ? DIGITS_LOWER : DIGITS_UPPER;
+		for (int i = dataOffset; i < dataOffset + dataLen; i++) {
+			final int d = data[i] & 0xFF;
+			out.append(toDigits[d >>> 4]).append(toDigits[d & 0x0F]);
+		}
+	}
+
 	/**
 	 * Converts an array of bytes into a String representing the hexadecimal values
 	 * of each byte in order. The returned
@@ -17,12 +17,13 @@
 
 package org.apache.commons.codec.digest;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -34,6 +35,16 @@ import org.apache.commons.codec.binary.StringUtils;
  * This class is immutable and thread-safe.
  * However the MessageDigest instances it creates generally won't be.
  * <p>
+ * The static shorthand methods, such as {@link #md5Hex(String)}, reuse one
+ * instance per thread and algorithm instead of looking up a provider on every
+ * call; threads of a pool that is discarded while its threads live on can
+ * drop theirs with {@link #releaseCachedDigests()}. The {@code get...Digest}
+ * methods always return a new instance.
+ * <p>
+ * The {@code ...Hex} methods return lower-case hex and the
+ * {@code ...HexUpper} methods upper-case hex, each built in one pass; there is
+ * no need to call {@link String#toUpperCase()} on the result.
+ * <p>
  * The {@link MessageDigestAlgorithms} class provides constants for standard
  * digest algorithms that can be used with the {@link #getDigest(String)} method
  * and other methods that require the Digest algorithm name.
@@ -58,6 +69,102 @@ public class DigestUtils {
 
 	private static final int STREAM_BUFFER_LENGTH = 1024;
 
+	/**
+	 * The default size of the direct buffer through which files and channels
+	 * are read: 64 KiB.
+	 */
+	public static final int CHANNEL_BUFFER_LENGTH = 64 * 1024;
+
+	// Per-thread direct buffers of CHANNEL_BUFFER_LENGTH bytes for channel reads
+	private static final ThreadLocal<ByteBuffer[]> CACHED_BUFFERS =
+			ThreadLocal.withInitial(() -> new ByteBuffer[1]);
+
+	// One slot per algorithm in MessageDigestAlgorithms, for cachedDigest()
+	private static final String[] CACHED_ALGORITHMS = MessageDigestAlgorithms.values();
+
+	private static final ThreadLocal<MessageDigest[]> CACHED_DIGESTS =
+			ThreadLocal.withInitial(() -> new MessageDigest[CACHED_ALGORITHMS.length]);
+
+	/**
+	 * Digests a byte array with this thread's instance of the algorithm,
+	 * creating it on first use.
+	 */
+	private static byte[] cachedDigest(final String algorithm, final byte[] data) {
+		final int slot = cacheSlot(algorithm);
+		if (slot < 0) {
+			return getDigest(algorithm).digest(data);
+		}
+		final MessageDigest[] cache = CACHED_DIGESTS.get();
+		MessageDigest messageDigest = cache[slot];
+		if (messageDigest == null) {
+			messageDigest = cache[slot] = getDigest(algorithm);
+		}
+		return messageDigest.digest(data);
+	}
+
+	/**
+	 * Digests a stream with this thread's instance of the algorithm. The
+	 * stream may call back into this class, so the instance is taken out of
+	 * the cache while it is in use, and only put back once it has been reset
+	 * by a successful digest.
+	 */
+	private static byte[] cachedDigest(final String algorithm, final InputStream data) throws IOException {
+		final int slot = cacheSlot(algorithm);
+		if (slot < 0) {
+			return digest(getDigest(algorithm), data);
+		}
+		final MessageDigest messageDigest = takeCachedDigest(algorithm, slot);
+		final byte[] result = digest(messageDigest, data);
+		CACHED_DIGESTS.get()[slot] = messageDigest;
+		return result;
+	}
+
+	/**
+	 * Digests a file with this thread's instance of the algorithm, taken out
+	 * of the cache while in use like for streams.
+	 */
+	private static byte[] cachedDigest(final String algorithm, final Path data) throws IOException {
+		final int slot = cacheSlot(algorithm);
+		if (slot < 0) {
+			return digest(getDigest(algorithm), data);
+		}
+		final MessageDigest messageDigest = takeCachedDigest(algorithm, slot);
+		final byte[] result = digest(messageDigest, data);
+		CACHED_DIGESTS.get()[slot] = messageDigest;
+		return result;
+	}
+
+	private static MessageDigest takeCachedDigest(final String algorithm, final int slot) {
+		final MessageDigest[] cache = CACHED_DIGESTS.get();
+		final MessageDigest messageDigest = cache[slot];
+		cache[slot] = null;
+		return messageDigest != null ? messageDigest : getDigest(algorithm);
+	}
+
+	private static int cacheSlot(final String algorithm) {
+		for (int i = 0; i < CACHED_ALGORITHMS.length; i++) {
+			if (CACHED_ALGORITHMS[i].equals(algorithm)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Drops the calling thread's reused {@link MessageDigest} instances, and
+	 * its direct buffer for reading files and channels.
+	 * <p>
+	 * The static shorthand methods keep one instance per thread and
+	 * algorithm. They are released with the thread, so this is only needed
+	 * where threads outlive their use, as in the pools of an application
+	 * server when an application is undeployed. The next call on this thread
+	 * simply creates new instances.
+	 */
+	public static void releaseCachedDigests() {
+		CACHED_DIGESTS.remove();
+		CACHED_BUFFERS.remove();
+	}
+
 	/**
 	 * Reads through a byte array and returns the digest for the data. Provided for
 	 * symmetry with other methods.
@@ -105,6 +212,21 @@ public class DigestUtils {
 		return updateDigest(messageDigest, data).digest();
 	}
 
+	/**
+	 * Reads through a file and returns the digest for the data
+	 *
+	 * @param messageDigest
+	 *                      The MessageDigest to use (e.g. MD5)
+	 * @param data
+	 *                      Data to digest
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] digest(final MessageDigest messageDigest, final Path data) throws IOException {
+		return updateDigest(messageDigest, data).digest();
+	}
+
 	/**
 	 * Reads through an InputStream and returns the digest for the data
 	 *
@@ -131,7 +253,8 @@ public class DigestUtils {
 	 *                  >Appendix A in the Java Cryptography Architecture Reference
 	 *                  Guide</a> for information about standard
 	 *                  algorithm names.
-	 * @return A digest instance.
+	 * @return A new digest instance, never shared with the static shorthand
+	 *         methods.
 	 * @see MessageDigest#getInstance(String)
 	 * @throws IllegalArgumentException
 	 *                                  when a {@link NoSuchAlgorithmException} is
@@ -320,7 +443,7 @@ public class DigestUtils {
 	 * @since 1.7
 	 */
 	public static byte[] md2(final byte[] data) {
-		return getMd2Digest().digest(data);
+		return cachedDigest(MessageDigestAlgorithms.MD2, data);
 	}
 
 	/**
@@ -335,7 +458,7 @@ public class DigestUtils {
 	 * @since 1.7
 	 */
 	public static byte[] md2(final InputStream data) throws IOException {
-		return digest(getMd2Digest(), data);
+		return cachedDigest(MessageDigestAlgorithms.MD2, data);
 	}
 
 	/**
@@ -390,6 +513,127 @@ public class DigestUtils {
 		return Hex.encodeHexString(md2(data));
 	}
 
+	/**
+	 * Calculates the MD2 digest and returns the value as a 16 element
+	 * <code>byte[]</code>.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] md2(final File data) throws IOException {
+		return md2(data.toPath());
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 16 element
+	 * <code>byte[]</code>.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] md2(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.MD2, data);
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character hex string.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md2Hex(final File data) throws IOException {
+		return Hex.encodeHexString(md2(data));
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character hex string.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md2Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(md2(data));
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as an upper-case hex string
+	 */
+	public static String md2HexUpper(final byte[] data) {
+		return Hex.encodeHexString(md2(data), false);
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String md2HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(md2(data), false);
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return MD2 digest as an upper-case hex string
+	 */
+	public static String md2HexUpper(final String data) {
+		return Hex.encodeHexString(md2(data), false);
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md2HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(md2(data), false);
+	}
+
+	/**
+	 * Calculates the MD2 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD2 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md2HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(md2(data), false);
+	}
+
 	/**
 	 * Calculates the MD5 digest and returns the value as a 16 element
 	 * <code>byte[]</code>.
@@ -399,7 +643,7 @@ public class DigestUtils {
 	 * @return MD5 digest
 	 */
 	public static byte[] md5(final byte[] data) {
-		return getMd5Digest().digest(data);
+		return cachedDigest(MessageDigestAlgorithms.MD5, data);
 	}
 
 	/**
@@ -414,7 +658,7 @@ public class DigestUtils {
 	 * @since 1.4
 	 */
 	public static byte[] md5(final InputStream data) throws IOException {
-		return digest(getMd5Digest(), data);
+		return cachedDigest(MessageDigestAlgorithms.MD5, data);
 	}
 
 	/**
@@ -466,6 +710,127 @@ public class DigestUtils {
 		return Hex.encodeHexString(md5(data));
 	}
 
+	/**
+	 * Calculates the MD5 digest and returns the value as a 16 element
+	 * <code>byte[]</code>.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] md5(final File data) throws IOException {
+		return md5(data.toPath());
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 16 element
+	 * <code>byte[]</code>.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] md5(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.MD5, data);
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character hex string.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md5Hex(final File data) throws IOException {
+		return Hex.encodeHexString(md5(data));
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character hex string.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md5Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(md5(data));
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as an upper-case hex string
+	 */
+	public static String md5HexUpper(final byte[] data) {
+		return Hex.encodeHexString(md5(data), false);
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String md5HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(md5(data), false);
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return MD5 digest as an upper-case hex string
+	 */
+	public static String md5HexUpper(final String data) {
+		return Hex.encodeHexString(md5(data), false);
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md5HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(md5(data), false);
+	}
+
+	/**
+	 * Calculates the MD5 digest and returns the value as a 32 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return MD5 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String md5HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(md5(data), false);
+	}
+
 	/**
 	 * Calculates the SHA-1 digest and returns the value as a <code>byte[]</code>.
 	 *
@@ -520,7 +885,7 @@ public class DigestUtils {
 	 * @since 1.7
 	 */
 	public static byte[] sha1(final byte[] data) {
-		return getSha1Digest().digest(data);
+		return cachedDigest(MessageDigestAlgorithms.SHA_1, data);
 	}
 
 	/**
@@ -534,7 +899,7 @@ public class DigestUtils {
 	 * @since 1.7
 	 */
 	public static byte[] sha1(final InputStream data) throws IOException {
-		return digest(getSha1Digest(), data);
+		return cachedDigest(MessageDigestAlgorithms.SHA_1, data);
 	}
 
 	/**
@@ -588,58 +953,177 @@ public class DigestUtils {
 	}
 
 	/**
-	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-1 digest and returns the value as a <code>byte[]</code>.
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-224 digest
-	 * @since 1.4
+	 * @return SHA-1 digest
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static byte[] sha224(final byte[] data) {
-		return getSha224Digest().digest(data);
+	public static byte[] sha1(final File data) throws IOException {
+		return sha1(data.toPath());
 	}
 
 	/**
-	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-1 digest and returns the value as a <code>byte[]</code>.
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-224 digest
+	 * @return SHA-1 digest
 	 * @throws IOException
-	 *                     On error reading from the stream
-	 * @since 1.4
+	 *                     On error reading the file
 	 */
-	public static byte[] sha224(final InputStream data) throws IOException {
-		return digest(getSha224Digest(), data);
+	public static byte[] sha1(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_1, data);
 	}
 
 	/**
-	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-1 digest and returns the value as a hex string.
 	 *
 	 * @param data
-	 *             Data to digest; converted to bytes using
-	 *             {@link StringUtils#getBytesUtf8(String)}
-	 * @return SHA-224 digest
-	 * @since 1.4
+	 *             Data to digest
+	 * @return SHA-1 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static byte[] sha224(final String data) {
-		return sha224(StringUtils.getBytesUtf8(data));
+	public static String sha1Hex(final File data) throws IOException {
+		return Hex.encodeHexString(sha1(data));
 	}
 
 	/**
-	 * Calculates the SHA-224 digest and returns the value as a hex string.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-1 digest and returns the value as a hex string.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-1 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha1Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(sha1(data));
+	}
+
+	/**
+	 * Calculates the SHA-1 digest and returns the value as a 40 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-1 digest as an upper-case hex string
+	 */
+	public static String sha1HexUpper(final byte[] data) {
+		return Hex.encodeHexString(sha1(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-1 digest and returns the value as a 40 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-1 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String sha1HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha1(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-1 digest and returns the value as a 40 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-1 digest as an upper-case hex string
+	 */
+	public static String sha1HexUpper(final String data) {
+		return Hex.encodeHexString(sha1(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-1 digest and returns the value as a 40 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-1 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha1HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(sha1(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-1 digest and returns the value as a 40 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-1 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha1HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(sha1(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest
+	 * @since 1.4
+	 */
+	public static byte[] sha224(final byte[] data) {
+		return cachedDigest(MessageDigestAlgorithms.SHA_224, data);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 * @since 1.4
+	 */
+	public static byte[] sha224(final InputStream data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_224, data);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-224 digest
+	 * @since 1.4
+	 */
+	public static byte[] sha224(final String data) {
+		return sha224(StringUtils.getBytesUtf8(data));
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
 	 *
 	 * @param data
 	 *             Data to digest
@@ -682,6 +1166,137 @@ public class DigestUtils {
 		return Hex.encodeHexString(sha224(data));
 	}
 
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha224(final File data) throws IOException {
+		return sha224(data.toPath());
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha224(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_224, data);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha224Hex(final File data) throws IOException {
+		return Hex.encodeHexString(sha224(data));
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha224Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(sha224(data));
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a 56 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as an upper-case hex string
+	 */
+	public static String sha224HexUpper(final byte[] data) {
+		return Hex.encodeHexString(sha224(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a 56 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String sha224HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha224(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a 56 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-224 digest as an upper-case hex string
+	 */
+	public static String sha224HexUpper(final String data) {
+		return Hex.encodeHexString(sha224(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a 56 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha224HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(sha224(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-224 digest and returns the value as a 56 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-224 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha224HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(sha224(data), false);
+	}
+
 	/**
 	 * Calculates the SHA-256 digest and returns the value as a <code>byte[]</code>.
 	 * <p>
@@ -694,7 +1309,103 @@ public class DigestUtils {
 	 * @since 1.4
 	 */
 	public static byte[] sha256(final byte[] data) {
-		return getSha256Digest().digest(data);
+		return cachedDigest(MessageDigestAlgorithms.SHA_256, data);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 * @since 1.4
+	 */
+	public static byte[] sha256(final InputStream data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_256, data);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-256 digest
+	 * @since 1.4
+	 */
+	public static byte[] sha256(final String data) {
+		return sha256(StringUtils.getBytesUtf8(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as a hex string
+	 * @since 1.4
+	 */
+	public static String sha256Hex(final byte[] data) {
+		return Hex.encodeHexString(sha256(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 * @since 1.4
+	 */
+	public static String sha256Hex(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha256(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as a hex string
+	 * @since 1.4
+	 */
+	public static String sha256Hex(final String data) {
+		return Hex.encodeHexString(sha256(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha256(final File data) throws IOException {
+		return sha256(data.toPath());
 	}
 
 	/**
@@ -707,15 +1418,145 @@ public class DigestUtils {
 	 *             Data to digest
 	 * @return SHA-256 digest
 	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha256(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_256, data);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha256Hex(final File data) throws IOException {
+		return Hex.encodeHexString(sha256(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha256Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(sha256(data));
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a 64 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as an upper-case hex string
+	 */
+	public static String sha256HexUpper(final byte[] data) {
+		return Hex.encodeHexString(sha256(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a 64 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String sha256HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha256(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a 64 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-256 digest as an upper-case hex string
+	 */
+	public static String sha256HexUpper(final String data) {
+		return Hex.encodeHexString(sha256(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a 64 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha256HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(sha256(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest and returns the value as a 64 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-256 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha256HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(sha256(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-384 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-384 digest
+	 * @since 1.4
+	 */
+	public static byte[] sha384(final byte[] data) {
+		return cachedDigest(MessageDigestAlgorithms.SHA_384, data);
+	}
+
+	/**
+	 * Calculates the SHA-384 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-384 digest
+	 * @throws IOException
 	 *                     On error reading from the stream
 	 * @since 1.4
 	 */
-	public static byte[] sha256(final InputStream data) throws IOException {
-		return digest(getSha256Digest(), data);
+	public static byte[] sha384(final InputStream data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_384, data);
 	}
 
 	/**
-	 * Calculates the SHA-256 digest and returns the value as a <code>byte[]</code>.
+	 * Calculates the SHA-384 digest and returns the value as a <code>byte[]</code>.
 	 * <p>
 	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
 	 * </p>
@@ -723,58 +1564,58 @@ public class DigestUtils {
 	 * @param data
 	 *             Data to digest; converted to bytes using
 	 *             {@link StringUtils#getBytesUtf8(String)}
-	 * @return SHA-256 digest
+	 * @return SHA-384 digest
 	 * @since 1.4
 	 */
-	public static byte[] sha256(final String data) {
-		return sha256(StringUtils.getBytesUtf8(data));
+	public static byte[] sha384(final String data) {
+		return sha384(StringUtils.getBytesUtf8(data));
 	}
 
 	/**
-	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * Calculates the SHA-384 digest and returns the value as a hex string.
 	 * <p>
 	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
 	 * </p>
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-256 digest as a hex string
+	 * @return SHA-384 digest as a hex string
 	 * @since 1.4
 	 */
-	public static String sha256Hex(final byte[] data) {
-		return Hex.encodeHexString(sha256(data));
+	public static String sha384Hex(final byte[] data) {
+		return Hex.encodeHexString(sha384(data));
 	}
 
 	/**
-	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * Calculates the SHA-384 digest and returns the value as a hex string.
 	 * <p>
 	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
 	 * </p>
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-256 digest as a hex string
+	 * @return SHA-384 digest as a hex string
 	 * @throws IOException
 	 *                     On error reading from the stream
 	 * @since 1.4
 	 */
-	public static String sha256Hex(final InputStream data) throws IOException {
-		return Hex.encodeHexString(sha256(data));
+	public static String sha384Hex(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha384(data));
 	}
 
 	/**
-	 * Calculates the SHA-256 digest and returns the value as a hex string.
+	 * Calculates the SHA-384 digest and returns the value as a hex string.
 	 * <p>
 	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
 	 * </p>
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-256 digest as a hex string
+	 * @return SHA-384 digest as a hex string
 	 * @since 1.4
 	 */
-	public static String sha256Hex(final String data) {
-		return Hex.encodeHexString(sha256(data));
+	public static String sha384Hex(final String data) {
+		return Hex.encodeHexString(sha384(data));
 	}
 
 	/**
@@ -786,10 +1627,11 @@ public class DigestUtils {
 	 * @param data
 	 *             Data to digest
 	 * @return SHA-384 digest
-	 * @since 1.4
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static byte[] sha384(final byte[] data) {
-		return getSha384Digest().digest(data);
+	public static byte[] sha384(final File data) throws IOException {
+		return sha384(data.toPath());
 	}
 
 	/**
@@ -802,27 +1644,26 @@ public class DigestUtils {
 	 *             Data to digest
 	 * @return SHA-384 digest
 	 * @throws IOException
-	 *                     On error reading from the stream
-	 * @since 1.4
+	 *                     On error reading the file
 	 */
-	public static byte[] sha384(final InputStream data) throws IOException {
-		return digest(getSha384Digest(), data);
+	public static byte[] sha384(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_384, data);
 	}
 
 	/**
-	 * Calculates the SHA-384 digest and returns the value as a <code>byte[]</code>.
+	 * Calculates the SHA-384 digest and returns the value as a hex string.
 	 * <p>
 	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
 	 * </p>
 	 *
 	 * @param data
-	 *             Data to digest; converted to bytes using
-	 *             {@link StringUtils#getBytesUtf8(String)}
-	 * @return SHA-384 digest
-	 * @since 1.4
+	 *             Data to digest
+	 * @return SHA-384 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static byte[] sha384(final String data) {
-		return sha384(StringUtils.getBytesUtf8(data));
+	public static String sha384Hex(final File data) throws IOException {
+		return Hex.encodeHexString(sha384(data));
 	}
 
 	/**
@@ -834,42 +1675,78 @@ public class DigestUtils {
 	 * @param data
 	 *             Data to digest
 	 * @return SHA-384 digest as a hex string
-	 * @since 1.4
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static String sha384Hex(final byte[] data) {
+	public static String sha384Hex(final Path data) throws IOException {
 		return Hex.encodeHexString(sha384(data));
 	}
 
 	/**
-	 * Calculates the SHA-384 digest and returns the value as a hex string.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-384 digest and returns the value as a 96 character
+	 * upper-case hex string, encoded in that case directly.
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-384 digest as a hex string
+	 * @return SHA-384 digest as an upper-case hex string
+	 */
+	public static String sha384HexUpper(final byte[] data) {
+		return Hex.encodeHexString(sha384(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-384 digest and returns the value as a 96 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-384 digest as an upper-case hex string
 	 * @throws IOException
 	 *                     On error reading from the stream
-	 * @since 1.4
 	 */
-	public static String sha384Hex(final InputStream data) throws IOException {
-		return Hex.encodeHexString(sha384(data));
+	public static String sha384HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha384(data), false);
 	}
 
 	/**
-	 * Calculates the SHA-384 digest and returns the value as a hex string.
-	 * <p>
-	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
-	 * </p>
+	 * Calculates the SHA-384 digest and returns the value as a 96 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-384 digest as an upper-case hex string
+	 */
+	public static String sha384HexUpper(final String data) {
+		return Hex.encodeHexString(sha384(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-384 digest and returns the value as a 96 character
+	 * upper-case hex string, encoded in that case directly.
 	 *
 	 * @param data
 	 *             Data to digest
-	 * @return SHA-384 digest as a hex string
-	 * @since 1.4
+	 * @return SHA-384 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
 	 */
-	public static String sha384Hex(final String data) {
-		return Hex.encodeHexString(sha384(data));
+	public static String sha384HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(sha384(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-384 digest and returns the value as a 96 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-384 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha384HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(sha384(data), false);
 	}
 
 	/**
@@ -884,7 +1761,7 @@ public class DigestUtils {
 	 * @since 1.4
 	 */
 	public static byte[] sha512(final byte[] data) {
-		return getSha512Digest().digest(data);
+		return cachedDigest(MessageDigestAlgorithms.SHA_512, data);
 	}
 
 	/**
@@ -901,7 +1778,7 @@ public class DigestUtils {
 	 * @since 1.4
 	 */
 	public static byte[] sha512(final InputStream data) throws IOException {
-		return digest(getSha512Digest(), data);
+		return cachedDigest(MessageDigestAlgorithms.SHA_512, data);
 	}
 
 	/**
@@ -967,6 +1844,137 @@ public class DigestUtils {
 		return Hex.encodeHexString(sha512(data));
 	}
 
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha512(final File data) throws IOException {
+		return sha512(data.toPath());
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a <code>byte[]</code>.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static byte[] sha512(final Path data) throws IOException {
+		return cachedDigest(MessageDigestAlgorithms.SHA_512, data);
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha512Hex(final File data) throws IOException {
+		return Hex.encodeHexString(sha512(data));
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a hex string.
+	 * <p>
+	 * Throws a <code>RuntimeException</code> on JRE versions prior to 1.4.0.
+	 * </p>
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha512Hex(final Path data) throws IOException {
+		return Hex.encodeHexString(sha512(data));
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a 128 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as an upper-case hex string
+	 */
+	public static String sha512HexUpper(final byte[] data) {
+		return Hex.encodeHexString(sha512(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a 128 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading from the stream
+	 */
+	public static String sha512HexUpper(final InputStream data) throws IOException {
+		return Hex.encodeHexString(sha512(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a 128 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest; converted to bytes using
+	 *             {@link StringUtils#getBytesUtf8(String)}
+	 * @return SHA-512 digest as an upper-case hex string
+	 */
+	public static String sha512HexUpper(final String data) {
+		return Hex.encodeHexString(sha512(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a 128 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha512HexUpper(final File data) throws IOException {
+		return Hex.encodeHexString(sha512(data), false);
+	}
+
+	/**
+	 * Calculates the SHA-512 digest and returns the value as a 128 character
+	 * upper-case hex string, encoded in that case directly.
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return SHA-512 digest as an upper-case hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static String sha512HexUpper(final Path data) throws IOException {
+		return Hex.encodeHexString(sha512(data), false);
+	}
+
 	/**
 	 * Calculates the SHA-1 digest and returns the value as a hex string.
 	 *
@@ -1052,12 +2060,114 @@ public class DigestUtils {
 	 * @return the digest
 	 * @throws IOException
 	 *                     On error reading from the stream
+	 * @see #updateDigest(MessageDigest, Path)
 	 * @since 1.11
 	 */
 	public static MessageDigest updateDigest(final MessageDigest digest, final File data) throws IOException {
-		try (BufferedInputStream stream = new BufferedInputStream(new FileInputStream(data))) {
-			return updateDigest(digest, stream);
+		return updateDigest(digest, data.toPath());
+	}
+
+	/**
+	 * Reads through a file and updates the digest for the data. The file is
+	 * read through a {@link FileChannel} into a direct buffer of
+	 * {@link #CHANNEL_BUFFER_LENGTH} bytes.
+	 *
+	 * @param digest
+	 *               The MessageDigest to use (e.g. MD5)
+	 * @param data
+	 *               Data to digest
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public static MessageDigest updateDigest(final MessageDigest digest, final Path data) throws IOException {
+		return updateDigest(digest, data, CHANNEL_BUFFER_LENGTH);
+	}
+
+	/**
+	 * Reads through a file and updates the digest for the data, through a
+	 * direct buffer of the given size.
+	 *
+	 * @param digest
+	 *                   The MessageDigest to use (e.g. MD5)
+	 * @param data
+	 *                   Data to digest
+	 * @param bufferSize
+	 *                   The number of bytes read at a time
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 * @see #updateDigest(MessageDigest, FileChannel, int)
+	 */
+	public static MessageDigest updateDigest(final MessageDigest digest, final Path data, final int bufferSize)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+			return updateDigest(digest, channel, bufferSize);
+		}
+	}
+
+	/**
+	 * Reads through a channel, from its current position to its end, and
+	 * updates the digest for the data. The channel is left open.
+	 *
+	 * @param digest
+	 *               The MessageDigest to use (e.g. MD5)
+	 * @param data
+	 *               Data to digest
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading from the channel
+	 */
+	public static MessageDigest updateDigest(final MessageDigest digest, final FileChannel data) throws IOException {
+		return updateDigest(digest, data, CHANNEL_BUFFER_LENGTH);
+	}
+
+	/**
+	 * Reads through a channel, from its current position to its end, and
+	 * updates the digest for the data. The channel is left open.
+	 * <p>
+	 * The data is read into a direct buffer, which the digest is updated
+	 * from with {@link MessageDigest#update(ByteBuffer)}, so that it never
+	 * goes through a heap buffer of this class. The buffer holds
+	 * {@link #CHANNEL_BUFFER_LENGTH} bytes and is kept by the calling thread
+	 * for later calls; see {@link #releaseCachedDigests()}. Larger reads are
+	 * not worth a native buffer of their own, so {@code bufferSize} is
+	 * capped at that length.
+	 *
+	 * @param digest
+	 *                   The MessageDigest to use (e.g. MD5)
+	 * @param data
+	 *                   Data to digest
+	 * @param bufferSize
+	 *                   The number of bytes read at a time, at most
+	 *                   {@link #CHANNEL_BUFFER_LENGTH}
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading from the channel
+	 * @throws IllegalArgumentException
+	 *                     if {@code bufferSize} is not positive
+	 */
+	public static MessageDigest updateDigest(final MessageDigest digest, final FileChannel data, final int bufferSize)
+			throws IOException {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+		}
+		final int size = Math.min(bufferSize, CHANNEL_BUFFER_LENGTH);
+		// taken out of the cache while in use, in case a nested call wants one
+		final ByteBuffer[] cache = CACHED_BUFFERS.get();
+		ByteBuffer buffer = cache[0];
+		cache[0] = null;
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_LENGTH);
 		}
+		buffer.clear().limit(size);
+		while (data.read(buffer) > -1) {
+			buffer.flip();
+			digest.update(buffer);
+			buffer.clear().limit(size);
+		}
+		CACHED_BUFFERS.get()[0] = buffer;
+		return digest;
 	}
 
 	/**
@@ -1223,6 +2333,19 @@ public class DigestUtils {
 		return updateDigest(messageDigest, data).digest();
 	}
 
+	/**
+	 * Reads through a file and returns the digest for the data
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return the digest
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public byte[] digest(final Path data) throws IOException {
+		return updateDigest(messageDigest, data).digest();
+	}
+
 	/**
 	 * Reads through an InputStream and returns the digest for the data
 	 *
@@ -1288,6 +2411,19 @@ public class DigestUtils {
 		return Hex.encodeHexString(digest(data));
 	}
 
+	/**
+	 * Reads through a file and returns the digest for the data
+	 *
+	 * @param data
+	 *             Data to digest
+	 * @return the digest as a hex string
+	 * @throws IOException
+	 *                     On error reading the file
+	 */
+	public String digestAsHex(final Path data) throws IOException {
+		return Hex.encodeHexString(digest(data));
+	}
+
 	/**
 	 * Reads through an InputStream and returns the digest for the data
 	 *
@@ -1,5 +1,7 @@
 package org.kc7bfi.jflac.util;
 
+import rawr.util.Checksums;
+
 /**
  *  libFLAC - Free Lossless Audio Codec library
  * Copyright (C) 2000,2001,2002,2003  Josh Coalson
@@ -31,6 +33,8 @@ public final class CRC8 {
 	}
 
     // CRC-8, poly = x^8 + x^2 + x^1 + x^0, init = 0
+    private static final long POLY = 0x07;
+
     private static final byte[] CRC8_TABLE =
         new byte[] {
             (byte) 0x00,
@@ -315,6 +319,22 @@ public final class CRC8 {
         return crc;
     }
 
+    /**
+     * Update the CRC value with a slice of a byte array.
+     *
+     * @param data  The byte array
+     * @param off   The offset of the first byte in the array
+     * @param len   The number of bytes to process
+     * @param crc   The starting CRC value
+     * @return      The updated CRC value
+     */
+    public static byte updateBlock(byte[] data, int off, int len, byte crc) {
+        int end = off + len;
+        for (int i = off; i < end; i++)
+            crc = CRC8_TABLE[(crc ^ data[i]) & 0xff];
+        return crc;
+    }
+
     /**
      * Calculate the CRC value with data from a byte array.
      *
@@ -330,4 +350,17 @@ public final class CRC8 {
 
         return crc;
     }
+
+    /**
+     * Combine the CRCs of two consecutive blocks of data into the CRC of
+     * both, without reading the data again.
+     *
+     * @param crcA      The CRC of the first block
+     * @param crcB      The CRC of the second block, starting from 0
+     * @param lengthB   The length of the second block
+     * @return          The CRC of the first block followed by the second
+     */
+    public static byte combine(byte crcA, byte crcB, long lengthB) {
+        return (byte) Checksums.combineCrc(crcA & 0xff, crcB & 0xff, lengthB, 8, POLY, false);
+    }
 }
@@ -0,0 +1,188 @@
+package rawr.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Combine operations for checksums: given the checksums of two consecutive
+ * blocks and the length of the second, they compute the checksum of both
+ * blocks without reading the data again, in time logarithmic in the length.
+ * {@code java.util.zip} has none, and the CRC engines of this project build
+ * their own {@code combine} methods on {@link #combineCrc} or, for unusual
+ * registers, {@link #combine(long[][], long, long, long)}.
+ *
+ * @author rawr51919
+ */
+public final class Checksums {
+
+	private static final long CRC32_POLY = 0x04C11DB7L;
+	private static final int ADLER32_BASE = 65521;
+
+	// zero-byte operator powers of the CRCs used with combineCrc, keyed by
+	// width, polynomial and reflection, built on first use
+	private static final ConcurrentMap<Key, long[][]> CRC_ZEROS = new ConcurrentHashMap<>();
+
+	private Checksums() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Combine two {@link java.util.zip.CRC32} values.
+	 *
+	 * @param crcA    the CRC-32 of the first block
+	 * @param crcB    the CRC-32 of the second block
+	 * @param lengthB the length of the second block, in bytes
+	 * @return the CRC-32 of the first block followed by the second
+	 */
+	public static long combineCrc32(long crcA, long crcB, long lengthB) {
+		return combineCrc(crcA & 0xffffffffL, crcB & 0xffffffffL, lengthB, 32, CRC32_POLY, true);
+	}
+
+	/**
+	 * Combine two values of a CRC given by its parameters. The CRC's initial
+	 * register must be equal to its final XOR value, as for CRC-32 and
+	 * CRC-64/XZ (all ones) or a CRC that uses neither, and its output must be
+	 * reflected if and only if its input is.
+	 *
+	 * @param crcA      the CRC of the first block
+	 * @param crcB      the CRC of the second block
+	 * @param lengthB   the length of the second block, in bytes
+	 * @param width     the CRC width, in bits (1 to 64)
+	 * @param poly      the generator polynomial, without its top bit, in
+	 *                  normal (not reflected) form
+	 * @param reflected whether input bytes are processed low bit first
+	 * @return the CRC of the first block followed by the second
+	 */
+	public static long combineCrc(long crcA, long crcB, long lengthB, int width, long poly, boolean reflected) {
+		if (width < 1 || width > 64)
+			throw new IllegalArgumentException("CRC width must be between 1 and 64 bits: " + width);
+		long[][] zeros = CRC_ZEROS.computeIfAbsent(new Key(width, poly, reflected), Checksums::crcZeros);
+		return combine(zeros, crcA, crcB, lengthB);
+	}
+
+	/**
+	 * Combine two states of any register that is linear over GF(2), such as
+	 * a CRC register: {@code stateB} must have started from 0.
+	 *
+	 * @param zeroOperators the register's {@linkplain #zeroOperators zero-byte
+	 *                      operator powers}
+	 * @param stateA        the register after the first block
+	 * @param stateB        the register after the second block, from 0
+	 * @param lengthB       the length of the second block, in bytes
+	 * @return the register after the first block followed by the second
+	 */
+	public static long combine(long[][] zeroOperators, long stateA, long stateB, long lengthB) {
+		checkLength(lengthB);
+		// the register is linear, so hashing B after A gives the register for
+		// B alone, XORed with stateA carried over lengthB zero bytes; that is
+		// done one power of two at a time. For CRCs whose initial register
+		// equals their final XOR, the two cancel out and the same holds for
+		// their values.
+		long c = stateA;
+		for (int k = 0; lengthB != 0; k++, lengthB >>>= 1)
+			if ((lengthB & 1) != 0)
+				c = times(zeroOperators[k], c);
+		return c ^ stateB;
+	}
+
+	/**
+	 * Build the table for {@link #combine(long[][], long, long, long)} from a
+	 * register's operator for one zero byte.
+	 *
+	 * @param zeroByte {@code zeroByte[i]} is the register after one zero byte,
+	 *                 starting from bit {@code i} alone; one entry per
+	 *                 register bit
+	 * @return the operators for 2^k zero bytes, for k from 0 to 62
+	 */
+	public static long[][] zeroOperators(long[] zeroByte) {
+		long[][] zeros = new long[63][];
+		zeros[0] = zeroByte.clone();
+		for (int k = 1; k < zeros.length; k++) {
+			zeros[k] = new long[zeroByte.length];
+			for (int i = 0; i < zeroByte.length; i++)
+				zeros[k][i] = times(zeros[k - 1], zeros[k - 1][i]);
+		}
+		return zeros;
+	}
+
+	private static long[][] crcZeros(Key key) {
+		long[] zeroByte = new long[key.width];
+		if (key.refIn) {
+			long rpoly = Long.reverse(key.poly) >>> (64 - key.width);
+			for (int i = 0; i < key.width; i++) {
+				long r = 1L << i;
+				for (int j = 0; j < 8; j++)
+					r = (r & 1) != 0 ? (r >>> 1) ^ rpoly : r >>> 1;
+				zeroByte[i] = r;
+			}
+		} else {
+			long top = 1L << (key.width - 1);
+			long mask = top | (top - 1);
+			for (int i = 0; i < key.width; i++) {
+				long r = 1L << i;
+				for (int j = 0; j < 8; j++)
+					r = (r & top) != 0 ? ((r << 1) ^ key.poly) & mask : (r << 1) & mask;
+				zeroByte[i] = r;
+			}
+		}
+		return zeroOperators(zeroByte);
+	}
+
+	/**
+	 * Combine two {@link java.util.zip.Adler32} values.
+	 *
+	 * @param adlerA  the Adler-32 of the first block
+	 * @param adlerB  the Adler-32 of the second block
+	 * @param lengthB the length of the second block, in bytes
+	 * @return the Adler-32 of the first block followed by the second
+	 */
+	public static long combineAdler32(long adlerA, long adlerB, long lengthB) {
+		checkLength(lengthB);
+		// the low sum just adds up (less B's initial 1); every byte of B also
+		// adds A's low sum once more to the high sum
+		long rem = lengthB % ADLER32_BASE;
+		long a = adlerA & 0xffff;
+		long sum1 = (a + (adlerB & 0xffff) + ADLER32_BASE - 1) % ADLER32_BASE;
+		long sum2 = (rem * a + (adlerA >>> 16 & 0xffff) + (adlerB >>> 16 & 0xffff) + ADLER32_BASE - rem)
+				% ADLER32_BASE;
+		return sum2 << 16 | sum1;
+	}
+
+	private static void checkLength(long length) {
+		if (length < 0)
+			throw new IllegalArgumentException("Negative length: " + length);
+	}
+
+	private static long times(long[] matrix, long vector) {
+		long sum = 0;
+		for (int i = 0; vector != 0; i++, vector >>>= 1)
+			if ((vector & 1) != 0)
+				sum ^= matrix[i];
+		return sum;
+	}
+
+	private static final class Key {
+		final int width;
+		final long poly;
+		final boolean refIn;
+
+		Key(int width, long poly, boolean refIn) {
+			this.width = width;
+			this.poly = poly;
+			this.refIn = refIn;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return width == other.width && poly == other.poly && refIn == other.refIn;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(poly) * 31 + width * 2 + (refIn ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package rawr.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free, single-producer ring of input chunks that every consumer reads in
+ * full (a broadcast ring, in the style of the LMAX Disruptor).
+ *
+ * The producer publishes chunks under increasing sequence numbers. Consumer
+ * {@code i} takes chunk {@code n}, processes it and releases it; a slot is only
+ * reused once every consumer has released the chunk it holds, so chunks are
+ * never modified while a consumer can still see them. Consumers must treat
+ * chunks as read-only. No locks are taken: progress is published through
+ * volatile sequence counters and waiting threads spin, then yield, then park
+ * briefly.
+ *
+ * @author rawr51919
+ */
+final class ChunkRing {
+
+	// consumer counters are spread 64 bytes apart to avoid false sharing
+	private static final int PAD = 8;
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 200;
+	private static final long PARK_NANOS = 20_000L;
+
+	private final ByteBuffer[] slots;
+	private final ByteBuffer[] owned;
+	private final int mask;
+	private final int chunkSize;
+	private final int consumers;
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final AtomicLongArray released;
+	private volatile long end = Long.MAX_VALUE;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	// producer-only state
+	private long claimed = -1;
+
+	/**
+	 * Create a ring.
+	 *
+	 * @param slots     the number of chunks in flight, a power of two
+	 * @param chunkSize the capacity of the ring's own chunk buffers
+	 * @param consumers the number of consumers
+	 */
+	ChunkRing(int slots, int chunkSize, int consumers) {
+		if (slots <= 0 || (slots & (slots - 1)) != 0)
+			throw new IllegalArgumentException("Slot count must be a power of two: " + slots);
+		this.slots = new ByteBuffer[slots];
+		this.owned = new ByteBuffer[slots];
+		this.mask = slots - 1;
+		this.chunkSize = chunkSize;
+		this.consumers = consumers;
+		this.released = new AtomicLongArray(consumers * PAD);
+		for (int i = 0; i < consumers; i++)
+			released.set(i * PAD, -1);
+	}
+
+	/**
+	 * Reserve the next slot and return the ring's own buffer for it, cleared
+	 * and ready to be filled. Waits until every consumer is done with the
+	 * chunk that last used the slot. Producer only.
+	 *
+	 * @return a heap buffer of the ring's chunk size
+	 */
+	ByteBuffer claim() {
+		reserve();
+		int slot = (int) (claimed & mask);
+		if (owned[slot] == null)
+			owned[slot] = ByteBuffer.allocate(chunkSize);
+		owned[slot].clear();
+		return owned[slot];
+	}
+
+	/**
+	 * Publish a chunk: either the buffer returned by {@link #claim()}, or
+	 * any buffer that stays valid and unmodified until consumers are done
+	 * with it (such as a slice of a mapped file). The chunk's remaining bytes
+	 * are what consumers see. Producer only.
+	 *
+	 * @param chunk the chunk to publish
+	 */
+	void publish(ByteBuffer chunk) {
+		reserve();
+		slots[(int) (claimed & mask)] = chunk;
+		cursor.set(claimed);
+	}
+
+	/**
+	 * Signal that no more chunks will be published. Producer only.
+	 */
+	void finish() {
+		end = cursor.get() + 1;
+	}
+
+	/**
+	 * Wait for chunk {@code seq} and return a private view of it. Chunks
+	 * must be taken in order, starting from 0.
+	 *
+	 * @param consumer the consumer index
+	 * @param seq      the chunk sequence number
+	 * @return the chunk, or {@code null} once the producer has finished
+	 */
+	ByteBuffer take(int consumer, long seq) {
+		int tries = 0;
+		while (cursor.get() < seq) {
+			checkFailure();
+			if (seq >= end)
+				return null;
+			tries = pause(tries);
+		}
+		return slots[(int) (seq & mask)].duplicate();
+	}
+
+	/**
+	 * Tell the producer that a consumer is done with chunk {@code seq}.
+	 *
+	 * @param consumer the consumer index
+	 * @param seq      the chunk sequence number
+	 */
+	void release(int consumer, long seq) {
+		released.set(consumer * PAD, seq);
+	}
+
+	/**
+	 * Abort the ring: every waiting or future call by the producer or the
+	 * consumers throws. Only the first failure is kept.
+	 *
+	 * @param cause the reason
+	 */
+	void fail(Throwable cause) {
+		failure.compareAndSet(null, cause);
+	}
+
+	/**
+	 * Get the failure passed to {@link #fail}, if any.
+	 *
+	 * @return the failure, or {@code null}
+	 */
+	Throwable getFailure() {
+		return failure.get();
+	}
+
+	private void reserve() {
+		if (claimed > cursor.get())
+			return;
+		long next = claimed + 1;
+		long wrap = next - slots.length;
+		int tries = 0;
+		while (minReleased() < wrap) {
+			checkFailure();
+			tries = pause(tries);
+		}
+		claimed = next;
+	}
+
+	private long minReleased() {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < consumers; i++)
+			min = Math.min(min, released.get(i * PAD));
+		return min;
+	}
+
+	private void checkFailure() {
+		Throwable t = failure.get();
+		if (t != null)
+			throw (CancellationException) new CancellationException("Chunk ring aborted").initCause(t);
+	}
+
+	private static int pause(int tries) {
+		if (tries < SPIN_TRIES)
+			Thread.onSpinWait();
+		else if (tries < YIELD_TRIES)
+			Thread.yield();
+		else
+			LockSupport.parkNanos(PARK_NANOS);
+		return tries + 1;
+	}
+}
@@ -0,0 +1,290 @@
+package rawr.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Checksum;
+
+/**
+ * A table-driven CRC of any width from 3 to 64 bits, described by the usual
+ * Rocksoft/RevEng parameters: width, poly, init, refin, refout and xorout.
+ * {@link CrcPreset} names the standard parameter sets.
+ *
+ * Input is folded in eight bytes at a time through slicing-by-8 tables. The
+ * tables only depend on the width, polynomial and input reflection, and are
+ * generated when the first engine for such a combination is created, then
+ * shared by every later one. Reflected CRCs run the register from the low
+ * end; the others keep it in the top bits of a {@code long}, so that every
+ * width uses the same byte-wide steps.
+ *
+ * Like the JDK checksums, a {@code Crc} is not thread-safe.
+ *
+ * @author rawr51919
+ */
+public class Crc implements Checksum {
+
+	// keyed by width, polynomial and input reflection
+	private static final ConcurrentMap<Key, long[][]> TABLES = new ConcurrentHashMap<>();
+
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.BIG_ENDIAN);
+	private static final VarHandle BUFFER_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_LONG_BE = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.BIG_ENDIAN);
+
+	private final int width;
+	private final long poly;
+	private final long init;
+	private final boolean refIn;
+	private final boolean refOut;
+	private final long xorOut;
+	// table[k][b] is the register after the byte b followed by k zero bytes
+	private final long[][] table;
+	private final long start;
+	private long crc;
+
+	/**
+	 * Create a CRC engine.
+	 *
+	 * @param width  the CRC width, in bits (3 to 64)
+	 * @param poly   the generator polynomial, without its top bit, in normal
+	 *               (not reflected) form
+	 * @param init   the register value before any input, in normal form
+	 * @param refIn  whether each input byte is processed low bit first
+	 * @param refOut whether the register is reflected before
+	 *               {@code xorOut} is applied
+	 * @param xorOut the value XORed into the final register
+	 * @throws IllegalArgumentException if the width is out of range, or a
+	 *         value is wider than it
+	 */
+	public Crc(int width, long poly, long init, boolean refIn, boolean refOut, long xorOut) {
+		if (width < 3 || width > 64)
+			throw new IllegalArgumentException("CRC width must be between 3 and 64 bits: " + width);
+		long mask = mask(width);
+		if ((poly & ~mask) != 0 || (init & ~mask) != 0 || (xorOut & ~mask) != 0)
+			throw new IllegalArgumentException("CRC parameter wider than " + width + " bits");
+		this.width = width;
+		this.poly = poly;
+		this.init = init;
+		this.refIn = refIn;
+		this.refOut = refOut;
+		this.xorOut = xorOut;
+		this.table = TABLES.computeIfAbsent(new Key(width, poly, refIn), Crc::newTable);
+		this.start = refIn ? reflect(init, width) : init << (64 - width);
+		this.crc = start;
+	}
+
+	private static long[][] newTable(Key key) {
+		long[][] table = new long[8][256];
+		if (key.refIn) {
+			long rpoly = reflect(key.poly, key.width);
+			for (int b = 0; b < 256; b++) {
+				long r = b;
+				for (int i = 0; i < 8; i++)
+					r = (r & 1) != 0 ? (r >>> 1) ^ rpoly : r >>> 1;
+				table[0][b] = r;
+			}
+			for (int k = 1; k < 8; k++)
+				for (int b = 0; b < 256; b++) {
+					long r = table[k - 1][b];
+					table[k][b] = (r >>> 8) ^ table[0][(int) r & 0xff];
+				}
+		} else {
+			long apoly = key.poly << (64 - key.width);
+			for (int b = 0; b < 256; b++) {
+				long r = (long) b << 56;
+				for (int i = 0; i < 8; i++)
+					r = r < 0 ? (r << 1) ^ apoly : r << 1;
+				table[0][b] = r;
+			}
+			for (int k = 1; k < 8; k++)
+				for (int b = 0; b < 256; b++) {
+					long r = table[k - 1][b];
+					table[k][b] = (r << 8) ^ table[0][(int) (r >>> 56)];
+				}
+		}
+		return table;
+	}
+
+	@Override
+	public void update(int b) {
+		long c = crc;
+		crc = refIn ? table[0][(int) (c ^ b) & 0xff] ^ (c >>> 8) : table[0][(int) ((c >>> 56) ^ b) & 0xff] ^ (c << 8);
+	}
+
+	@Override
+	public void update(byte[] buf, int off, int len) {
+		if (off < 0 || len < 0 || off > buf.length - len)
+			throw new ArrayIndexOutOfBoundsException();
+		long c = crc;
+		if (refIn) {
+			for (; len >= 8; off += 8, len -= 8)
+				c = sliceReflected(c ^ (long) LONG_LE.get(buf, off));
+			for (; len > 0; len--)
+				c = table[0][(int) (c ^ buf[off++]) & 0xff] ^ (c >>> 8);
+		} else {
+			for (; len >= 8; off += 8, len -= 8)
+				c = slice(c ^ (long) LONG_BE.get(buf, off));
+			for (; len > 0; len--)
+				c = table[0][(int) ((c >>> 56) ^ buf[off++]) & 0xff] ^ (c << 8);
+		}
+		crc = c;
+	}
+
+	// Direct and mapped buffers are read in place, eight bytes at a time
+	@Override
+	public void update(ByteBuffer buf) {
+		if (buf.hasArray()) {
+			update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+			buf.position(buf.limit());
+			return;
+		}
+		int pos = buf.position();
+		int end = buf.limit();
+		long c = crc;
+		if (refIn) {
+			for (; end - pos >= 8; pos += 8)
+				c = sliceReflected(c ^ (long) BUFFER_LONG_LE.get(buf, pos));
+			while (pos < end)
+				c = table[0][(int) (c ^ buf.get(pos++)) & 0xff] ^ (c >>> 8);
+		} else {
+			for (; end - pos >= 8; pos += 8)
+				c = slice(c ^ (long) BUFFER_LONG_BE.get(buf, pos));
+			while (pos < end)
+				c = table[0][(int) ((c >>> 56) ^ buf.get(pos++)) & 0xff] ^ (c << 8);
+		}
+		crc = c;
+		buf.position(end);
+	}
+
+	// eight bytes at once: the first byte is the low one of v
+	private long sliceReflected(long v) {
+		return table[7][(int) v & 0xff]
+				^ table[6][(int) (v >>> 8) & 0xff]
+				^ table[5][(int) (v >>> 16) & 0xff]
+				^ table[4][(int) (v >>> 24) & 0xff]
+				^ table[3][(int) (v >>> 32) & 0xff]
+				^ table[2][(int) (v >>> 40) & 0xff]
+				^ table[1][(int) (v >>> 48) & 0xff]
+				^ table[0][(int) (v >>> 56)];
+	}
+
+	// eight bytes at once: the first byte is the high one of v
+	private long slice(long v) {
+		return table[7][(int) (v >>> 56)]
+				^ table[6][(int) (v >>> 48) & 0xff]
+				^ table[5][(int) (v >>> 40) & 0xff]
+				^ table[4][(int) (v >>> 32) & 0xff]
+				^ table[3][(int) (v >>> 24) & 0xff]
+				^ table[2][(int) (v >>> 16) & 0xff]
+				^ table[1][(int) (v >>> 8) & 0xff]
+				^ table[0][(int) v & 0xff];
+	}
+
+	@Override
+	public long getValue() {
+		long r = refIn ? crc : crc >>> (64 - width);
+		if (refIn != refOut)
+			r = reflect(r, width);
+		return r ^ xorOut;
+	}
+
+	@Override
+	public void reset() {
+		crc = start;
+	}
+
+	/**
+	 * Get the CRC width.
+	 *
+	 * @return the width, in bits
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Get the generator polynomial.
+	 *
+	 * @return the polynomial, without its top bit, in normal form
+	 */
+	public long getPoly() {
+		return poly;
+	}
+
+	/**
+	 * Get the initial register value.
+	 *
+	 * @return the register value before any input, in normal form
+	 */
+	public long getInit() {
+		return init;
+	}
+
+	/**
+	 * Tell whether input bytes are processed low bit first.
+	 *
+	 * @return the refin parameter
+	 */
+	public boolean isRefIn() {
+		return refIn;
+	}
+
+	/**
+	 * Tell whether the register is reflected before {@link #getXorOut} is
+	 * applied.
+	 *
+	 * @return the refout parameter
+	 */
+	public boolean isRefOut() {
+		return refOut;
+	}
+
+	/**
+	 * Get the value XORed into the final register.
+	 *
+	 * @return the xorout parameter
+	 */
+	public long getXorOut() {
+		return xorOut;
+	}
+
+	private static long mask(int width) {
+		return width == 64 ? -1L : (1L << width) - 1;
+	}
+
+	private static long reflect(long value, int width) {
+		return Long.reverse(value) >>> (64 - width);
+	}
+
+	private static final class Key {
+		final int width;
+		final long poly;
+		final boolean refIn;
+
+		Key(int width, long poly, boolean refIn) {
+			this.width = width;
+			this.poly = poly;
+			this.refIn = refIn;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return width == other.width && poly == other.poly && refIn == other.refIn;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(poly) * 31 + width * 2 + (refIn ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package rawr.util;
+
+/**
+ * A catalogue of standard CRCs, with the parameters and names used by Greg
+ * Cook's CRC RevEng catalogue. Each preset creates {@link Crc} engines and
+ * records the check value: the CRC of the ASCII string {@code "123456789"}.
+ *
+ * Some of the CRCs computed by the GUIs are here too: {@link #CRC8_SMBUS} is
+ * CRC8, {@link #CRC32_ISO_HDLC} is CRC32 and {@link #CRC64_XZ} is CRC64.
+ *
+ * @author rawr51919
+ */
+public enum CrcPreset {
+	CRC3_GSM("CRC-3/GSM", 3, 0x3, 0x0, false, false, 0x7, 0x4),
+	CRC3_ROHC("CRC-3/ROHC", 3, 0x3, 0x7, true, true, 0x0, 0x6),
+	CRC4_G_704("CRC-4/G-704", 4, 0x3, 0x0, true, true, 0x0, 0x7, "CRC-4/ITU"),
+	CRC4_INTERLAKEN("CRC-4/INTERLAKEN", 4, 0x3, 0xf, false, false, 0xf, 0xb),
+	CRC5_EPC_C1G2("CRC-5/EPC-C1G2", 5, 0x09, 0x09, false, false, 0x00, 0x00),
+	CRC5_G_704("CRC-5/G-704", 5, 0x15, 0x00, true, true, 0x00, 0x07, "CRC-5/ITU"),
+	CRC5_USB("CRC-5/USB", 5, 0x05, 0x1f, true, true, 0x1f, 0x19),
+	CRC6_G_704("CRC-6/G-704", 6, 0x03, 0x00, true, true, 0x00, 0x06, "CRC-6/ITU"),
+	CRC7_MMC("CRC-7/MMC", 7, 0x09, 0x00, false, false, 0x00, 0x75),
+	CRC8_SMBUS("CRC-8/SMBUS", 8, 0x07, 0x00, false, false, 0x00, 0xf4, "CRC-8"),
+	CRC8_AUTOSAR("CRC-8/AUTOSAR", 8, 0x2f, 0xff, false, false, 0xff, 0xdf),
+	CRC8_BLUETOOTH("CRC-8/BLUETOOTH", 8, 0xa7, 0x00, true, true, 0x00, 0x26),
+	CRC8_CDMA2000("CRC-8/CDMA2000", 8, 0x9b, 0xff, false, false, 0x00, 0xda),
+	CRC8_I_432_1("CRC-8/I-432-1", 8, 0x07, 0x00, false, false, 0x55, 0xa1, "CRC-8/ITU"),
+	CRC8_MAXIM_DOW("CRC-8/MAXIM-DOW", 8, 0x31, 0x00, true, true, 0x00, 0xa1, "CRC-8/MAXIM"),
+	CRC8_ROHC("CRC-8/ROHC", 8, 0x07, 0xff, true, true, 0x00, 0xd0),
+	CRC10_ATM("CRC-10/ATM", 10, 0x233, 0x000, false, false, 0x000, 0x199),
+	CRC11_FLEXRAY("CRC-11/FLEXRAY", 11, 0x385, 0x01a, false, false, 0x000, 0x5a3),
+	CRC12_DECT("CRC-12/DECT", 12, 0x80f, 0x000, false, false, 0x000, 0xf5b),
+	CRC15_CAN("CRC-15/CAN", 15, 0x4599, 0x0000, false, false, 0x0000, 0x059e),
+	CRC16_ARC("CRC-16/ARC", 16, 0x8005, 0x0000, true, true, 0x0000, 0xbb3d, "CRC-16", "CRC-16/LHA"),
+	CRC16_DNP("CRC-16/DNP", 16, 0x3d65, 0x0000, true, true, 0xffff, 0xea82),
+	CRC16_GENIBUS("CRC-16/GENIBUS", 16, 0x1021, 0xffff, false, false, 0xffff, 0xd64e),
+	CRC16_IBM_3740("CRC-16/IBM-3740", 16, 0x1021, 0xffff, false, false, 0x0000,
+			0x29b1, "CRC-16/CCITT-FALSE", "CRC-16/AUTOSAR"),
+	CRC16_IBM_SDLC("CRC-16/IBM-SDLC", 16, 0x1021, 0xffff, true, true, 0xffff, 0x906e, "CRC-16/X-25"),
+	CRC16_KERMIT("CRC-16/KERMIT", 16, 0x1021, 0x0000, true, true, 0x0000, 0x2189, "CRC-16/CCITT"),
+	CRC16_MAXIM_DOW("CRC-16/MAXIM-DOW", 16, 0x8005, 0x0000, true, true, 0xffff, 0x44c2, "CRC-16/MAXIM"),
+	CRC16_MODBUS("CRC-16/MODBUS", 16, 0x8005, 0xffff, true, true, 0x0000, 0x4b37),
+	CRC16_UMTS("CRC-16/UMTS", 16, 0x8005, 0x0000, false, false, 0x0000, 0xfee8, "CRC-16/BUYPASS"),
+	CRC16_USB("CRC-16/USB", 16, 0x8005, 0xffff, true, true, 0xffff, 0xb4c8),
+	CRC16_XMODEM("CRC-16/XMODEM", 16, 0x1021, 0x0000, false, false, 0x0000,
+			0x31c3, "CRC-16/ACORN", "CRC-16/LTE"),
+	CRC17_CAN_FD("CRC-17/CAN-FD", 17, 0x1685b, 0x00000, false, false, 0x00000, 0x04f03),
+	CRC21_CAN_FD("CRC-21/CAN-FD", 21, 0x102899, 0x000000, false, false, 0x000000, 0x0ed841),
+	CRC24_BLE("CRC-24/BLE", 24, 0x00065b, 0x555555, true, true, 0x000000, 0xc25a56),
+	CRC24_OPENPGP("CRC-24/OPENPGP", 24, 0x864cfb, 0xb704ce, false, false, 0x000000, 0x21cf02),
+	CRC31_PHILIPS("CRC-31/PHILIPS", 31, 0x04c11db7, 0x7fffffff, false, false, 0x7fffffff, 0x0ce9e46c),
+	CRC32_AIXM("CRC-32/AIXM", 32, 0x814141abL, 0x00000000L, false, false, 0x00000000L,
+			0x3010bf7fL, "CRC-32Q"),
+	CRC32_BZIP2("CRC-32/BZIP2", 32, 0x04c11db7L, 0xffffffffL, false, false, 0xffffffffL, 0xfc891918L),
+	CRC32_CKSUM("CRC-32/CKSUM", 32, 0x04c11db7L, 0x00000000L, false, false, 0xffffffffL,
+			0x765e7680L, "CRC-32/POSIX"),
+	CRC32_ISCSI("CRC-32/ISCSI", 32, 0x1edc6f41L, 0xffffffffL, true, true, 0xffffffffL,
+			0xe3069283L, "CRC-32C"),
+	CRC32_ISO_HDLC("CRC-32/ISO-HDLC", 32, 0x04c11db7L, 0xffffffffL, true, true, 0xffffffffL,
+			0xcbf43926L, "CRC-32"),
+	CRC32_JAMCRC("CRC-32/JAMCRC", 32, 0x04c11db7L, 0xffffffffL, true, true, 0x00000000L, 0x340bc6d9L),
+	CRC32_MPEG_2("CRC-32/MPEG-2", 32, 0x04c11db7L, 0xffffffffL, false, false, 0x00000000L, 0x0376e6e7L),
+	CRC32_XFER("CRC-32/XFER", 32, 0x000000afL, 0x00000000L, false, false, 0x00000000L, 0xbd0be338L),
+	CRC40_GSM("CRC-40/GSM", 40, 0x0004820009L, 0x0000000000L, false, false, 0xffffffffffL, 0xd4164fc646L),
+	CRC64_ECMA_182("CRC-64/ECMA-182", 64, 0x42f0e1eba9ea3693L, 0x0000000000000000L, false, false, 0x0000000000000000L,
+			0x6c40df5f0b497347L, "CRC-64"),
+	CRC64_GO_ISO("CRC-64/GO-ISO", 64, 0x000000000000001bL, 0xffffffffffffffffL, true, true, 0xffffffffffffffffL,
+			0xb90956c775a41001L, "CRC-64/ISO"),
+	CRC64_MS("CRC-64/MS", 64, 0x259c84cba6426349L, 0xffffffffffffffffL, true, true, 0x0000000000000000L,
+			0x75d4b74f024eceeaL),
+	CRC64_REDIS("CRC-64/REDIS", 64, 0xad93d23594c935a9L, 0x0000000000000000L, true, true, 0x0000000000000000L,
+			0xe9c6d914c4b8d9caL),
+	CRC64_WE("CRC-64/WE", 64, 0x42f0e1eba9ea3693L, 0xffffffffffffffffL, false, false, 0xffffffffffffffffL,
+			0x62ec59e3f1a4f00aL),
+	CRC64_XZ("CRC-64/XZ", 64, 0x42f0e1eba9ea3693L, 0xffffffffffffffffL, true, true, 0xffffffffffffffffL,
+			0x995dc9bbdf1939faL);
+
+	private final String label;
+	private final int width;
+	private final long poly;
+	private final long init;
+	private final boolean refIn;
+	private final boolean refOut;
+	private final long xorOut;
+	private final long check;
+	private final String[] aliases;
+
+	CrcPreset(String label, int width, long poly, long init, boolean refIn, boolean refOut, long xorOut, long check,
+			String... aliases) {
+		this.label = label;
+		this.width = width;
+		this.poly = poly;
+		this.init = init;
+		this.refIn = refIn;
+		this.refOut = refOut;
+		this.xorOut = xorOut;
+		this.check = check;
+		this.aliases = aliases;
+	}
+
+	/**
+	 * Create a new engine for this CRC.
+	 *
+	 * @return a freshly-initialized engine
+	 */
+	public Crc newCrc() {
+		return new Crc(width, poly, init, refIn, refOut, xorOut);
+	}
+
+	/**
+	 * Get the catalogue name, such as {@code CRC-16/IBM-3740}.
+	 *
+	 * @return the name
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Get the CRC width.
+	 *
+	 * @return the width, in bits
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Get the generator polynomial.
+	 *
+	 * @return the polynomial, without its top bit, in normal form
+	 */
+	public long getPoly() {
+		return poly;
+	}
+
+	/**
+	 * Get the initial register value.
+	 *
+	 * @return the register value before any input, in normal form
+	 */
+	public long getInit() {
+		return init;
+	}
+
+	/**
+	 * Tell whether input bytes are processed low bit first.
+	 *
+	 * @return the refin parameter
+	 */
+	public boolean isRefIn() {
+		return refIn;
+	}
+
+	/**
+	 * Tell whether the register is reflected before the final XOR.
+	 *
+	 * @return the refout parameter
+	 */
+	public boolean isRefOut() {
+		return refOut;
+	}
+
+	/**
+	 * Get the value XORed into the final register.
+	 *
+	 * @return the xorout parameter
+	 */
+	public long getXorOut() {
+		return xorOut;
+	}
+
+	/**
+	 * Get the CRC of the ASCII string {@code "123456789"}.
+	 *
+	 * @return the check value
+	 */
+	public long getCheck() {
+		return check;
+	}
+
+	/**
+	 * Find a preset by catalogue name, common alias (such as
+	 * {@code CRC-16/CCITT-FALSE}, {@code CRC-32C} or {@code CRC-64/ISO}) or
+	 * constant name, ignoring case.
+	 *
+	 * @param name the preset name
+	 * @return the preset
+	 * @throws IllegalArgumentException if there is no such preset
+	 */
+	public static CrcPreset forName(String name) {
+		String key = name.trim();
+		for (CrcPreset preset : values()) {
+			if (preset.label.equalsIgnoreCase(key) || preset.name().equalsIgnoreCase(key))
+				return preset;
+			for (String alias : preset.aliases)
+				if (alias.equalsIgnoreCase(key))
+					return preset;
+		}
+		throw new IllegalArgumentException("Unknown CRC: " + name);
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
@@ -0,0 +1,68 @@
+package rawr.util;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measured per-byte cost of each digest algorithm, used to spread algorithms
+ * over worker threads. Each algorithm is timed once per JVM, the first time a
+ * sink for it is asked about, and the figure is cached by
+ * {@link DigestSink#getAlgorithm()}.
+ *
+ * @author rawr51919
+ */
+public final class DigestCost {
+
+	private DigestCost() {
+		// Prevent instantiation
+	}
+
+	// 64 KiB is enough to get past per-call overheads and keeps the one-off
+	// calibration of the slowest algorithms (MD2, Whirlpool) in the low ms
+	private static final int SAMPLE_LENGTH = 64 * 1024;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int TIMED_ROUNDS = 3;
+
+	private static final byte[] SAMPLE = new byte[SAMPLE_LENGTH];
+	private static final Map<String, Double> COSTS = new ConcurrentHashMap<>();
+
+	static {
+		new Random(0x5eed).nextBytes(SAMPLE);
+	}
+
+	/**
+	 * Get the cost of {@code sink}'s algorithm, in nanoseconds per byte. If
+	 * the algorithm has not been measured yet, {@code sink} itself is used
+	 * to measure it and is then reset, so this must only be called before
+	 * the sink is given any data.
+	 *
+	 * @param sink a sink that has not been fed yet
+	 * @return the measured cost, in nanoseconds per byte
+	 */
+	public static double of(DigestSink sink) {
+		Double cost = COSTS.get(sink.getAlgorithm());
+		if (cost == null) {
+			cost = measure(sink);
+			COSTS.putIfAbsent(sink.getAlgorithm(), cost);
+		}
+		return cost;
+	}
+
+	private static double measure(DigestSink sink) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink.update(SAMPLE, 0, SAMPLE_LENGTH);
+			sink.digest();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < TIMED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			sink.update(SAMPLE, 0, SAMPLE_LENGTH);
+			sink.digest();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		sink.reset();
+		// never report zero, so that every sink still counts as some load
+		return Math.max(best, 1L) / (double) SAMPLE_LENGTH;
+	}
+}
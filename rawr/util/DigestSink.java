@@ -0,0 +1,435 @@
+package rawr.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import byte_transforms.CRC64;
+import com.xyz.XYZMessageDigest;
+import fr.cryptohash.Digest;
+import jcifs.util.MD4;
+
+/**
+ * One running hash or checksum computation, as seen by {@link MultiDigest}.
+ *
+ * The GUIs use three unrelated engine families: the {@code fr.cryptohash}
+ * digests, {@code java.security.MessageDigest} (the JCA SHA family, MD4 and
+ * XYZ) and {@code java.util.zip.Checksum}. This interface gives them a common
+ * shape so that a single pass over the input can feed all of them.
+ *
+ * A sink is stateful and not thread-safe, exactly like the engine it wraps.
+ *
+ * @author rawr51919
+ */
+public interface DigestSink {
+
+	/**
+	 * Insert some more bytes.
+	 *
+	 * @param buf the data buffer
+	 * @param off the data offset in {@code buf}
+	 * @param len the data length (in bytes)
+	 */
+	void update(byte[] buf, int off, int len);
+
+	/**
+	 * Insert the remaining bytes of {@code buf}; its position is advanced
+	 * to its limit. Heap buffers are read in place. The default
+	 * implementation copies direct buffers through a temporary array, so
+	 * sinks that can do better should override this method and
+	 * {@link #supportsDirectBuffers}.
+	 *
+	 * @param buf the data buffer
+	 */
+	default void update(ByteBuffer buf) {
+		int len = buf.remaining();
+		if (buf.hasArray()) {
+			update(buf.array(), buf.arrayOffset() + buf.position(), len);
+			buf.position(buf.limit());
+			return;
+		}
+		byte[] tmp = new byte[Math.min(len, 8192)];
+		while (len > 0) {
+			int n = Math.min(len, tmp.length);
+			buf.get(tmp, 0, n);
+			update(tmp, 0, n);
+			len -= n;
+		}
+	}
+
+	/**
+	 * Tell whether {@link #update(ByteBuffer)} reads direct (and mapped)
+	 * buffers without first copying them into a {@code byte[]}. When it
+	 * does not, {@link MultiDigest} copies each slice once into a shared
+	 * array instead of letting every sink make its own copy.
+	 *
+	 * @return {@code true} if direct buffers are consumed in place
+	 */
+	default boolean supportsDirectBuffers() {
+		return false;
+	}
+
+	/**
+	 * Finalize the current computation and return the result in a
+	 * newly-allocated array. Checksums are returned big-endian, so that
+	 * their hex form matches {@code String.format("%08X", value)}. The sink
+	 * is reset.
+	 *
+	 * @return the hash output
+	 */
+	byte[] digest();
+
+	/**
+	 * Discard the current computation, if any.
+	 */
+	void reset();
+
+	/**
+	 * Get the output length (in bytes).
+	 *
+	 * @return the digest output length (in bytes)
+	 */
+	int getDigestLength();
+
+	/**
+	 * Tell whether the state of the current computation can be exported
+	 * with {@link #exportState} and resumed later, possibly in another
+	 * process, with {@link #importState}. The JCA digests keep their state
+	 * out of reach, so they cannot.
+	 *
+	 * @return {@code true} if the state can be exported
+	 */
+	default boolean isResumable() {
+		return false;
+	}
+
+	/**
+	 * Export the state of the current computation. The sink is not
+	 * modified.
+	 *
+	 * @return the encoded state
+	 * @throws UnsupportedOperationException if the sink is not
+	 *         {@linkplain #isResumable resumable}
+	 */
+	default byte[] exportState() {
+		throw new UnsupportedOperationException(getAlgorithm() + " cannot export its state");
+	}
+
+	/**
+	 * Replace the state of the current computation with one exported by a
+	 * sink for the same algorithm.
+	 *
+	 * @param state the encoded state
+	 * @throws IllegalArgumentException      if {@code state} is corrupt
+	 * @throws UnsupportedOperationException if the sink is not
+	 *         {@linkplain #isResumable resumable}
+	 */
+	default void importState(byte[] state) {
+		throw new UnsupportedOperationException(getAlgorithm() + " cannot import a state");
+	}
+
+	/**
+	 * Tell whether the computation of another sink for the same algorithm
+	 * can be appended to this one with {@link #combine}, which lets a large
+	 * input be cut into chunks that are hashed independently. Only the
+	 * checksums can: CRC8, CRC16, CRC32, Adler-32 and CRC64.
+	 *
+	 * @return {@code true} if computations can be combined
+	 */
+	default boolean isCombinable() {
+		return false;
+	}
+
+	/**
+	 * Append a computation exported by another sink for the same algorithm,
+	 * which started from a reset and hashed the {@code length} bytes that
+	 * follow this sink's input. This sink is left as if it had hashed both
+	 * inputs itself.
+	 *
+	 * @param next   the other sink's {@linkplain #exportState state}
+	 * @param length the number of bytes the other sink hashed
+	 * @throws IllegalArgumentException      if {@code next} is corrupt
+	 * @throws UnsupportedOperationException if the sink is not
+	 *         {@linkplain #isCombinable combinable}
+	 */
+	default void combine(byte[] next, long length) {
+		throw new UnsupportedOperationException(getAlgorithm() + " cannot be combined");
+	}
+
+	/**
+	 * Get a name that identifies the algorithm (not the instance). Sinks
+	 * with the same name are assumed to cost the same per byte.
+	 *
+	 * @return the algorithm name
+	 */
+	default String getAlgorithm() {
+		return getClass().getName();
+	}
+
+	/**
+	 * Wrap a {@code fr.cryptohash} digest.
+	 *
+	 * @param digest the digest to feed
+	 * @return the sink
+	 */
+	static DigestSink of(final Digest digest) {
+		// trees over different digests cost what those digests cost
+		final String algorithm = digest instanceof TreeDigest ? ((TreeDigest) digest).getAlgorithm()
+				: digest.getClass().getName();
+		return new DigestSink() {
+			public void update(byte[] buf, int off, int len) {
+				digest.update(buf, off, len);
+			}
+
+			// direct buffers are copied a block at a time, which beats a
+			// temporary array, but not MultiDigest's shared copy
+			public void update(ByteBuffer buf) {
+				digest.update(buf);
+			}
+
+			public byte[] digest() {
+				return digest.digest();
+			}
+
+			public void reset() {
+				digest.reset();
+			}
+
+			public int getDigestLength() {
+				return digest.getDigestLength();
+			}
+
+			public boolean isResumable() {
+				return true;
+			}
+
+			public byte[] exportState() {
+				return digest.exportState();
+			}
+
+			public void importState(byte[] state) {
+				digest.importState(state);
+			}
+
+			public String getAlgorithm() {
+				return algorithm;
+			}
+		};
+	}
+
+	/**
+	 * Wrap a JCA message digest.
+	 *
+	 * @param digest the message digest to feed
+	 * @return the sink
+	 */
+	static DigestSink of(final MessageDigest digest) {
+		// of the JCA digests, only the ones in this project can be resumed
+		final boolean resumable = digest instanceof MD4 || digest instanceof XYZMessageDigest;
+		// and both read direct buffers in place
+		final boolean direct = resumable;
+		return new DigestSink() {
+			public void update(byte[] buf, int off, int len) {
+				digest.update(buf, off, len);
+			}
+
+			public void update(ByteBuffer buf) {
+				if (direct)
+					digest.update(buf);
+				else
+					DigestSink.super.update(buf);
+			}
+
+			public boolean supportsDirectBuffers() {
+				return direct;
+			}
+
+			public byte[] digest() {
+				return digest.digest();
+			}
+
+			public void reset() {
+				digest.reset();
+			}
+
+			public int getDigestLength() {
+				return digest.getDigestLength();
+			}
+
+			public boolean isResumable() {
+				return resumable;
+			}
+
+			public byte[] exportState() {
+				if (digest instanceof MD4)
+					return ((MD4) digest).exportState();
+				if (digest instanceof XYZMessageDigest)
+					return ((XYZMessageDigest) digest).exportState();
+				return DigestSink.super.exportState();
+			}
+
+			public void importState(byte[] state) {
+				if (digest instanceof MD4)
+					((MD4) digest).importState(state);
+				else if (digest instanceof XYZMessageDigest)
+					((XYZMessageDigest) digest).importState(state);
+				else
+					DigestSink.super.importState(state);
+			}
+
+			public String getAlgorithm() {
+				return digest.getAlgorithm();
+			}
+		};
+	}
+
+	/**
+	 * Wrap a checksum whose value is {@code length} bytes wide.
+	 *
+	 * @param checksum the checksum to feed
+	 * @param length   the checksum width, in bytes (at most 8)
+	 * @return the sink
+	 */
+	static DigestSink of(final Checksum checksum, final int length) {
+		// the zlib-backed JDK checksums read direct buffers by address, and
+		// CRC64 reads them in place; the Checksum default would copy them
+		// through a fresh array every call
+		final boolean direct = checksum instanceof CRC32 || checksum instanceof Adler32
+				|| checksum instanceof CRC32C || checksum instanceof CRC64;
+		// CRC32 and Adler32 cannot be set to a value, so an imported one is
+		// kept aside and combined with whatever is hashed after it
+		final boolean rebasable = checksum instanceof CRC32 || checksum instanceof Adler32;
+		return new DigestSink() {
+			private boolean rebased;
+			private long base;
+			private long count;
+
+			public void update(byte[] buf, int off, int len) {
+				checksum.update(buf, off, len);
+				count += len;
+			}
+
+			public void update(ByteBuffer buf) {
+				if (direct) {
+					count += buf.remaining();
+					checksum.update(buf);
+				} else {
+					DigestSink.super.update(buf);
+				}
+			}
+
+			public boolean supportsDirectBuffers() {
+				return direct;
+			}
+
+			public byte[] digest() {
+				byte[] out = toBytes(value(), length);
+				reset();
+				return out;
+			}
+
+			public void reset() {
+				checksum.reset();
+				rebased = false;
+				count = 0;
+			}
+
+			public int getDigestLength() {
+				return length;
+			}
+
+			public boolean isResumable() {
+				return rebasable || checksum instanceof CRC64;
+			}
+
+			public byte[] exportState() {
+				if (!isResumable())
+					return DigestSink.super.exportState();
+				return toBytes(value(), length);
+			}
+
+			public void importState(byte[] state) {
+				if (!isResumable())
+					DigestSink.super.importState(state);
+				else
+					setValue(fromBytes(state, length));
+			}
+
+			public boolean isCombinable() {
+				return isResumable();
+			}
+
+			public void combine(byte[] next, long nextLength) {
+				if (!isCombinable())
+					DigestSink.super.combine(next, nextLength);
+				else
+					setValue(combine(value(), fromBytes(next, length), nextLength));
+			}
+
+			public String getAlgorithm() {
+				return checksum.getClass().getName();
+			}
+
+			private long value() {
+				return rebased ? combine(base, checksum.getValue(), count) : checksum.getValue();
+			}
+
+			private void setValue(long value) {
+				if (checksum instanceof CRC64) {
+					((CRC64) checksum).setValue(value);
+					return;
+				}
+				checksum.reset();
+				rebased = true;
+				base = value;
+				count = 0;
+			}
+
+			private long combine(long a, long b, long lengthB) {
+				if (checksum instanceof CRC64)
+					return CRC64.combine(a, b, lengthB);
+				if (checksum instanceof CRC32)
+					return Checksums.combineCrc32(a, b, lengthB);
+				return Checksums.combineAdler32(a, b, lengthB);
+			}
+		};
+	}
+
+	/**
+	 * Encode the low {@code length} bytes of {@code value}, most
+	 * significant byte first.
+	 *
+	 * @param value  the value to encode
+	 * @param length the number of bytes to produce
+	 * @return the encoded value
+	 */
+	static byte[] toBytes(long value, int length) {
+		byte[] out = new byte[length];
+		for (int i = length - 1; i >= 0; i--) {
+			out[i] = (byte) value;
+			value >>>= 8;
+		}
+		return out;
+	}
+
+	/**
+	 * Decode a value encoded by {@link #toBytes}, for
+	 * {@link #importState}.
+	 *
+	 * @param state  the encoded value
+	 * @param length the expected number of bytes
+	 * @return the decoded value
+	 * @throws IllegalArgumentException if {@code state} has another length
+	 */
+	static long fromBytes(byte[] state, int length) {
+		if (state.length != length)
+			throw new IllegalArgumentException("Corrupt checksum state: " + state.length + " bytes");
+		long value = 0;
+		for (byte b : state)
+			value = value << 8 | (b & 0xff);
+		return value;
+	}
+}
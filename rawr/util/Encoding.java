@@ -0,0 +1,156 @@
+package rawr.util;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.commons.codec.EncoderException;
+import org.apache.commons.codec.binary.Base32;
+import org.apache.geronimo.mail.util.UUEncode;
+import org.mesh4j.sync.utils.YEnc;
+
+import at.favre.lib.encoding.Base122;
+import com.amazonaws.util.Base16;
+import com.amazonaws.util.Base16Lower;
+import com.orwell.util.Ascii85;
+import de.bwaldvogel.base91.Base91;
+
+/**
+ * The encodings computed by the encoding GUI, in the order they are displayed.
+ * Each constant turns the whole input into the string shown next to its
+ * label; the codecs used are stateless, so encodings can run on any thread.
+ *
+ * @author rawr51919
+ */
+public enum Encoding {
+	BASE15_UPPER("Base15 (Uppercase)", data -> upper(radix(data, 15))),
+	BASE15_LOWER("Base15 (Lowercase)", data -> radix(data, 15)),
+	BASE16_UPPER("Base16 (Uppercase)", data -> new String(Base16.encode(data))),
+	BASE16_LOWER("Base16 (Lowercase)", data -> new String(Base16Lower.encode(data))),
+	BASE17_UPPER("Base17 (Uppercase)", data -> upper(radix(data, 17))),
+	BASE17_LOWER("Base17 (Lowercase)", data -> radix(data, 17)),
+	BASE18_UPPER("Base18 (Uppercase)", data -> upper(radix(data, 18))),
+	BASE18_LOWER("Base18 (Lowercase)", data -> radix(data, 18)),
+	BASE19_UPPER("Base19 (Uppercase)", data -> upper(radix(data, 19))),
+	BASE19_LOWER("Base19 (Lowercase)", data -> radix(data, 19)),
+	BASE20_UPPER("Base20 (Uppercase)", data -> upper(radix(data, 20))),
+	BASE20_LOWER("Base20 (Lowercase)", data -> radix(data, 20)),
+	BASE21_UPPER("Base21 (Uppercase)", data -> upper(radix(data, 21))),
+	BASE21_LOWER("Base21 (Lowercase)", data -> radix(data, 21)),
+	BASE22_UPPER("Base22 (Uppercase)", data -> upper(radix(data, 22))),
+	BASE22_LOWER("Base22 (Lowercase)", data -> radix(data, 22)),
+	BASE23_UPPER("Base23 (Uppercase)", data -> upper(radix(data, 23))),
+	BASE23_LOWER("Base23 (Lowercase)", data -> radix(data, 23)),
+	BASE24_UPPER("Base24 (Uppercase)", data -> upper(radix(data, 24))),
+	BASE24_LOWER("Base24 (Lowercase)", data -> radix(data, 24)),
+	BASE25_UPPER("Base25 (Uppercase)", data -> upper(radix(data, 25))),
+	BASE25_LOWER("Base25 (Lowercase)", data -> radix(data, 25)),
+	BASE26_UPPER("Base26 (Uppercase)", data -> upper(radix(data, 26))),
+	BASE26_LOWER("Base26 (Lowercase)", data -> radix(data, 26)),
+	BASE27_UPPER("Base27 (Uppercase)", data -> upper(radix(data, 27))),
+	BASE27_LOWER("Base27 (Lowercase)", data -> radix(data, 27)),
+	BASE28_UPPER("Base28 (Uppercase)", data -> upper(radix(data, 28))),
+	BASE28_LOWER("Base28 (Lowercase)", data -> radix(data, 28)),
+	BASE29_UPPER("Base29 (Uppercase)", data -> upper(radix(data, 29))),
+	BASE29_LOWER("Base29 (Lowercase)", data -> radix(data, 29)),
+	BASE30_UPPER("Base30 (Uppercase)", data -> upper(radix(data, 30))),
+	BASE30_LOWER("Base30 (Lowercase)", data -> radix(data, 30)),
+	BASE31_UPPER("Base31 (Uppercase)", data -> upper(radix(data, 31))),
+	BASE31_LOWER("Base31 (Lowercase)", data -> radix(data, 31)),
+	BASE32_UPPER("Base32 (Uppercase)", data -> new String(new Base32().encode(data))),
+	BASE32_LOWER("Base32 (Lowercase)", data -> new String(new Base32().encode(data)).toLowerCase()),
+	BASE33_UPPER("Base33 (Uppercase)", data -> upper(radix(data, 33))),
+	BASE33_LOWER("Base33 (Lowercase)", data -> radix(data, 33)),
+	BASE34_UPPER("Base34 (Uppercase)", data -> upper(radix(data, 34))),
+	BASE34_LOWER("Base34 (Lowercase)", data -> radix(data, 34)),
+	BASE35_UPPER("Base35 (Uppercase)", data -> upper(radix(data, 35))),
+	BASE35_LOWER("Base35 (Lowercase)", data -> radix(data, 35)),
+	BASE36_UPPER("Base36 (Uppercase)", data -> upper(radix(data, 36))),
+	BASE36_LOWER("Base36 (Lowercase)", data -> radix(data, 36)),
+	BASE64("Base64", data -> new String(Base64.getEncoder().encode(data))),
+	BASE64_URL("Base64 (URL/filename safe)", data -> new String(Base64.getUrlEncoder().encode(data))),
+	// Base64 MIME normally newlines the hash every 76 characters as per RFC 2045,
+	// remove these so it shows up properly in our GUI window
+	BASE64_MIME("Base64 (MIME)", data -> oneLine(new String(Base64.getMimeEncoder().encode(data)))),
+	BASE85("Base85 (With Arrows)", data -> new String(Ascii85.addIdentifiers(Ascii85.encode(data)))),
+	BASE85_NO_ARROWS("Base85 (Without Arrows)", data -> new String(Ascii85.encode(data))),
+	BASE91("basE91", data -> new String(Base91.encode(data))),
+	BASE93("Base93", data -> new String(Base93.encode(data))),
+	BASE122("Base122", data -> new Base122().encode(data)),
+	// UUEncode normally newlines the hash every 45 characters,
+	// remove these so it shows up properly in our GUI window
+	UUENCODE("UUEncode", data -> oneLine(new String(UUEncode.encode(data)))),
+	YENC("yEnc", Encoding::yenc),
+	// HexagramEncode normally newlines the hash every 76 characters as per RFC 2045,
+	// remove these so it shows up properly in our GUI window
+	HEXAGRAM("HexagramEncode", data -> oneLine(HexagramEncode.encode(Arrays.toString(data))));
+
+	private final String label;
+	private final Function<byte[], String> encoder;
+
+	Encoding(String label, Function<byte[], String> encoder) {
+		this.label = label;
+		this.encoder = encoder;
+	}
+
+	/**
+	 * Get the name shown next to the result in the encoding GUI.
+	 *
+	 * @return the display name
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Encode {@code data}.
+	 *
+	 * @param data the bytes to encode
+	 * @return the encoded string, on a single line
+	 */
+	public String encode(byte[] data) {
+		return encoder.apply(data);
+	}
+
+	/**
+	 * Encode {@code data} with each of {@code encodings}.
+	 *
+	 * @param data      the bytes to encode
+	 * @param encodings the encodings to compute
+	 * @return an unmodifiable map from encoding to encoded string, in
+	 *         display order
+	 */
+	public static Map<Encoding, String> encodeAll(byte[] data, Collection<Encoding> encodings) {
+		Map<Encoding, String> out = new EnumMap<>(Encoding.class);
+		for (Encoding encoding : encodings)
+			out.put(encoding, encoding.encode(data));
+		return Collections.unmodifiableMap(out);
+	}
+
+	private static String radix(byte[] data, int radix) {
+		return new BigInteger(1, data).toString(radix);
+	}
+
+	private static String upper(String s) {
+		return s.toUpperCase();
+	}
+
+	private static String oneLine(String s) {
+		return s.replaceAll("\\R", "");
+	}
+
+	private static String yenc(byte[] data) {
+		try {
+			return new String(new YEnc().encode(data), StandardCharsets.UTF_8);
+		} catch (EncoderException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,409 @@
+package rawr.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streams a file (or any input stream) through a {@link MultiDigest} using a
+ * single fixed-size buffer, so heap use does not depend on the input size.
+ *
+ * Files can also be read through sliding {@link MappedByteBuffer} windows,
+ * which lets the digests read the page cache directly instead of having
+ * {@code FileInputStream.read} copy it onto the heap first. See
+ * {@link InputMode}.
+ *
+ * With more than one thread, large inputs are hashed by a
+ * {@link ParallelDigest}: the calling thread reads and the algorithms run on
+ * worker threads. The buffer budget is then split into
+ * {@link ParallelDigest#DEFAULT_SLOTS} chunks in flight.
+ *
+ * Every {@code hash} method has a variant that takes a {@link HashListener},
+ * which is told how far the input has been read and when each result is
+ * ready, and which can cancel the call between buffers.
+ *
+ * A {@code FileHasher} only holds its configuration and may be shared between
+ * threads; each call allocates its own buffer.
+ *
+ * @author rawr51919
+ */
+public class FileHasher {
+
+	/** Default read buffer size: 1 MiB. */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+	/** Smallest accepted read buffer size: 4 KiB. */
+	public static final int MIN_BUFFER_SIZE = 1 << 12;
+	/** Largest accepted read buffer size: 256 MiB. */
+	public static final int MAX_BUFFER_SIZE = 1 << 28;
+
+	/** Files at least this large are mapped in {@link InputMode#AUTO} mode: 64 MiB. */
+	public static final long DEFAULT_MAP_THRESHOLD = 64L << 20;
+	/** Size of each mapped window: 64 MiB. */
+	public static final int MAP_WINDOW_SIZE = 64 << 20;
+	/** Files smaller than this are hashed on the calling thread only: 4 MiB. */
+	public static final long PARALLEL_THRESHOLD = 4L << 20;
+
+	/**
+	 * How file contents reach the digests.
+	 */
+	public enum InputMode {
+		/** Read into a heap buffer with {@code FileInputStream.read}. */
+		STREAM,
+		/** Map the file in {@link FileHasher#MAP_WINDOW_SIZE} windows. */
+		MAPPED,
+		/** Map files of at least the map threshold, stream smaller ones. */
+		AUTO
+	}
+
+	private final int bufferSize;
+	private final InputMode mode;
+	private final long mapThreshold;
+	private final int threads;
+
+	/**
+	 * Create a hasher with the default buffer size that maps large files
+	 * and uses every core.
+	 */
+	public FileHasher() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a hasher that reads {@code bufferSize} bytes at a time, maps
+	 * large files and uses every core.
+	 *
+	 * @param bufferSize the read buffer size, in bytes
+	 */
+	public FileHasher(int bufferSize) {
+		this(bufferSize, InputMode.AUTO, DEFAULT_MAP_THRESHOLD, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a hasher.
+	 *
+	 * @param bufferSize   the read buffer size, in bytes
+	 * @param mode         how files are read
+	 * @param mapThreshold the smallest file size that is mapped in
+	 *                     {@link InputMode#AUTO} mode
+	 * @param threads      the maximum number of digest worker threads; 1
+	 *                     hashes everything on the calling thread
+	 */
+	public FileHasher(int bufferSize, InputMode mode, long mapThreshold, int threads) {
+		if (bufferSize < MIN_BUFFER_SIZE || bufferSize > MAX_BUFFER_SIZE)
+			throw new IllegalArgumentException("Buffer size must be between " + MIN_BUFFER_SIZE + " and "
+					+ MAX_BUFFER_SIZE + " bytes: " + bufferSize);
+		if (mapThreshold < 0)
+			throw new IllegalArgumentException("Map threshold must not be negative: " + mapThreshold);
+		if (threads <= 0)
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		this.bufferSize = bufferSize;
+		this.mode = mode;
+		this.mapThreshold = mapThreshold;
+		this.threads = threads;
+	}
+
+	/**
+	 * Get the read buffer size.
+	 *
+	 * @return the buffer size, in bytes
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Get the input mode used for files.
+	 *
+	 * @return the input mode
+	 */
+	public InputMode getInputMode() {
+		return mode;
+	}
+
+	/**
+	 * Get the smallest file size that is mapped in {@link InputMode#AUTO}
+	 * mode.
+	 *
+	 * @return the map threshold, in bytes
+	 */
+	public long getMapThreshold() {
+		return mapThreshold;
+	}
+
+	/**
+	 * Get the maximum number of digest worker threads.
+	 *
+	 * @return the thread count
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Hash a file with every algorithm in {@code engine}.
+	 *
+	 * @param file   the file to read
+	 * @param engine the fan-out to feed; it is reset on return
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the file cannot be read
+	 */
+	public byte[][] hash(File file, MultiDigest engine) throws IOException {
+		return hash(file, engine, HashListener.NONE);
+	}
+
+	/**
+	 * Hash a file with every algorithm in {@code engine}, reporting progress
+	 * to {@code listener}.
+	 *
+	 * @param file     the file to read
+	 * @param engine   the fan-out to feed; it is reset on return
+	 * @param listener the progress listener
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the file cannot be read
+	 * @throws CancellationException if {@code listener} cancelled the call
+	 */
+	public byte[][] hash(File file, MultiDigest engine, HashListener listener) throws IOException {
+		try (FileInputStream in = new FileInputStream(file)) {
+			return hash(in, engine, listener);
+		}
+	}
+
+	/**
+	 * Hash the rest of a file stream with every algorithm in
+	 * {@code engine}, reading it as the {@linkplain #getInputMode input
+	 * mode} says. The stream is read to its end but not closed.
+	 *
+	 * @param in     the stream to read
+	 * @param engine the fan-out to feed; it is reset on return
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the stream cannot be read
+	 */
+	public byte[][] hash(FileInputStream in, MultiDigest engine) throws IOException {
+		return hash(in, engine, HashListener.NONE);
+	}
+
+	/**
+	 * Hash the rest of a file stream with every algorithm in
+	 * {@code engine}, reporting progress to {@code listener}. The stream is
+	 * read to its end but not closed.
+	 *
+	 * @param in       the stream to read
+	 * @param engine   the fan-out to feed; it is reset on return
+	 * @param listener the progress listener
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the stream cannot be read
+	 * @throws CancellationException if {@code listener} cancelled the call
+	 */
+	public byte[][] hash(FileInputStream in, MultiDigest engine, HashListener listener) throws IOException {
+		FileChannel channel = in.getChannel();
+		long remaining = channel.size() - channel.position();
+		boolean mapped = mode == InputMode.MAPPED || (mode == InputMode.AUTO && remaining >= mapThreshold);
+		boolean parallel = isParallel(engine) && remaining >= PARALLEL_THRESHOLD;
+		if (!mapped) {
+			if (parallel)
+				return streamParallel(in, engine, listener, null, 0);
+			// small files do not need the whole buffer, which matters when
+			// hashing many of them
+			int length = (int) Math.max(MIN_BUFFER_SIZE, Math.min(bufferSize, remaining));
+			return stream(in, engine, listener, length);
+		}
+		return parallel ? mapParallel(channel, engine, listener) : map(channel, engine, listener);
+	}
+
+	/**
+	 * Hash the rest of {@code in} with every algorithm in {@code engine}.
+	 * The stream is read to its end but not closed.
+	 *
+	 * @param in     the stream to read
+	 * @param engine the fan-out to feed; it is reset on return
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the stream cannot be read
+	 */
+	public byte[][] hash(InputStream in, MultiDigest engine) throws IOException {
+		return hash(in, engine, HashListener.NONE);
+	}
+
+	/**
+	 * Hash the rest of {@code in} with every algorithm in {@code engine},
+	 * reporting progress to {@code listener}. The stream is read to its end
+	 * but not closed. Like files, streams shorter than
+	 * {@link #PARALLEL_THRESHOLD} are hashed on the calling thread only.
+	 *
+	 * @param in       the stream to read
+	 * @param engine   the fan-out to feed; it is reset on return
+	 * @param listener the progress listener
+	 * @return one hash output per sink of {@code engine}
+	 * @throws IOException if the stream cannot be read
+	 * @throws CancellationException if {@code listener} cancelled the call
+	 */
+	public byte[][] hash(InputStream in, MultiDigest engine, HashListener listener) throws IOException {
+		if (!isParallel(engine))
+			return stream(in, engine, listener, bufferSize);
+		int available = in.available();
+		if (available >= PARALLEL_THRESHOLD)
+			return streamParallel(in, engine, listener, null, 0);
+		// an in-memory stream knows its exact length
+		if (in instanceof ByteArrayInputStream)
+			return stream(in, engine, listener, Math.max(MIN_BUFFER_SIZE, Math.min(bufferSize, available)));
+		// otherwise the length is unknown: read up to the threshold first,
+		// and only start the workers if there is more
+		byte[] head = new byte[(int) Math.min(bufferSize, PARALLEL_THRESHOLD)];
+		int length = 0;
+		while (true) {
+			checkCancelled(listener);
+			if (length == head.length) {
+				if (length == PARALLEL_THRESHOLD)
+					return streamParallel(in, engine, listener, head, length);
+				head = Arrays.copyOf(head, (int) Math.min(2L * length, PARALLEL_THRESHOLD));
+			}
+			int read = in.read(head, length, head.length - length);
+			if (read == -1)
+				break;
+			length += read;
+		}
+		try {
+			engine.update(head, 0, length);
+			listener.bytesHashed(length);
+			return digest(engine, listener);
+		} finally {
+			engine.reset();
+		}
+	}
+
+	private boolean isParallel(MultiDigest engine) {
+		return threads > 1 && engine.size() > 1;
+	}
+
+	private byte[][] stream(InputStream in, MultiDigest engine, HashListener listener, int length)
+			throws IOException {
+		byte[] buffer = new byte[length];
+		try {
+			long total = 0;
+			while (true) {
+				checkCancelled(listener);
+				int read = in.read(buffer, 0, buffer.length);
+				if (read == -1)
+					break;
+				engine.update(buffer, 0, read);
+				listener.bytesHashed(total += read);
+			}
+			return digest(engine, listener);
+		} finally {
+			engine.reset();
+		}
+	}
+
+	private byte[][] map(FileChannel channel, MultiDigest engine, HashListener listener) throws IOException {
+		try {
+			long start = channel.position();
+			long pos = start;
+			long end = channel.size();
+			while (pos < end) {
+				int len = (int) Math.min(MAP_WINDOW_SIZE, end - pos);
+				// the window is left to the GC to unmap: the digests may still
+				// hold views of it, and an early unmap would crash the JVM
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+				// feed it a buffer at a time, so that progress and cancellation
+				// are as fine-grained as when streaming
+				for (int off = 0; off < len; off += bufferSize) {
+					checkCancelled(listener);
+					int n = Math.min(bufferSize, len - off);
+					engine.update(window.slice(off, n));
+					listener.bytesHashed(pos + off + n - start);
+				}
+				pos += len;
+			}
+			channel.position(end);
+			return digest(engine, listener);
+		} finally {
+			engine.reset();
+		}
+	}
+
+	// the first headLength bytes of the input have already been read into head
+	private byte[][] streamParallel(InputStream in, MultiDigest engine, HashListener listener, byte[] head,
+			int headLength) throws IOException {
+		ParallelDigest parallel = newParallelDigest(engine, listener);
+		try {
+			long total = 0;
+			while (total < headLength) {
+				checkCancelled(listener);
+				ByteBuffer chunk = parallel.claim();
+				int n = (int) Math.min(chunk.capacity(), headLength - total);
+				chunk.put(head, (int) total, n).flip();
+				parallel.publish(chunk);
+				listener.bytesHashed(total += n);
+			}
+			while (true) {
+				checkCancelled(listener);
+				ByteBuffer chunk = parallel.claim();
+				int read = in.read(chunk.array(), chunk.arrayOffset(), chunk.capacity());
+				if (read == -1)
+					break;
+				chunk.limit(read);
+				parallel.publish(chunk);
+				listener.bytesHashed(total += read);
+			}
+		} catch (IOException | RuntimeException | Error e) {
+			parallel.abort(e);
+			throw e;
+		}
+		return parallel.finish();
+	}
+
+	private byte[][] mapParallel(FileChannel channel, MultiDigest engine, HashListener listener)
+			throws IOException {
+		ParallelDigest parallel = newParallelDigest(engine, listener);
+		int chunkSize = chunkSize();
+		try {
+			long start = channel.position();
+			long pos = start;
+			long end = channel.size();
+			while (pos < end) {
+				int len = (int) Math.min(MAP_WINDOW_SIZE, end - pos);
+				// see map(): windows stay mapped until the GC finds them unused
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+				for (int off = 0; off < len; off += chunkSize) {
+					checkCancelled(listener);
+					int n = Math.min(chunkSize, len - off);
+					parallel.publish(window.slice(off, n));
+					listener.bytesHashed(pos + off + n - start);
+				}
+				pos += len;
+			}
+			channel.position(end);
+		} catch (IOException | RuntimeException | Error e) {
+			parallel.abort(e);
+			throw e;
+		}
+		return parallel.finish();
+	}
+
+	private static byte[][] digest(MultiDigest engine, HashListener listener) {
+		byte[][] out = engine.digest();
+		for (int i = 0; i < out.length; i++)
+			listener.digestReady(i, out[i]);
+		return out;
+	}
+
+	private static void checkCancelled(HashListener listener) {
+		if (listener.isCancelled())
+			throw new CancellationException("Hashing cancelled");
+	}
+
+	private ParallelDigest newParallelDigest(MultiDigest engine, HashListener listener) {
+		return new ParallelDigest(engine, threads, chunkSize(), ParallelDigest.DEFAULT_SLOTS, listener);
+	}
+
+	// the buffer budget is shared by every chunk in flight
+	private int chunkSize() {
+		return Math.max(bufferSize / ParallelDigest.DEFAULT_SLOTS, MIN_BUFFER_SIZE);
+	}
+}
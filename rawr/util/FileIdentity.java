@@ -0,0 +1,64 @@
+package rawr.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a file looked like when it was hashed: its canonical path, size,
+ * modification time and {@linkplain BasicFileAttributes#fileKey file key}
+ * (device and inode, where the platform has them). Saved hashing work is
+ * only reused while all four are unchanged.
+ *
+ * @author rawr51919
+ */
+final class FileIdentity {
+	final String path;
+	final long size;
+	final long modified;
+	final String fileKey;
+
+	FileIdentity(String path, long size, long modified, String fileKey) {
+		this.path = path;
+		this.size = size;
+		this.modified = modified;
+		this.fileKey = fileKey;
+	}
+
+	static FileIdentity of(Path file) throws IOException {
+		Path real = file.toRealPath();
+		BasicFileAttributes attrs = Files.readAttributes(real, BasicFileAttributes.class);
+		Object key = attrs.fileKey();
+		return new FileIdentity(real.toString(), attrs.size(), attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+				key == null ? "" : key.toString());
+	}
+
+	static FileIdentity read(DataInput in) throws IOException {
+		return new FileIdentity(in.readUTF(), in.readLong(), in.readLong(), in.readUTF());
+	}
+
+	void write(DataOutput out) throws IOException {
+		out.writeUTF(path);
+		out.writeLong(size);
+		out.writeLong(modified);
+		out.writeUTF(fileKey);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof FileIdentity))
+			return false;
+		FileIdentity other = (FileIdentity) o;
+		return path.equals(other.path) && size == other.size && modified == other.modified
+				&& fileKey.equals(other.fileKey);
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+}
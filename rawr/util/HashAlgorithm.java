@@ -0,0 +1,283 @@
+package rawr.util;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import byte_transforms.CRC64;
+import com.xyz.XYZMessageDigest;
+import fr.cryptohash.RIPEMD;
+import fr.cryptohash.RIPEMD128;
+import fr.cryptohash.RIPEMD160;
+import fr.cryptohash.SHA0;
+import fr.cryptohash.Tiger;
+import fr.cryptohash.Tiger2;
+import fr.cryptohash.Whirlpool;
+import fr.cryptohash.Whirlpool0;
+import fr.cryptohash.Whirlpool1;
+import godlikeblock.util.CRC16;
+import jcifs.util.MD4;
+
+/**
+ * The hashes and checksums computed by the GUIs, in the order they are
+ * displayed. Each constant knows how to build a fresh {@link DigestSink} for
+ * its algorithm.
+ *
+ * The {@linkplain TreeDigest tree} variants at the end are opt-in: they are
+ * left out of {@link #standard()}, and so of the "all hashes" profiles, and
+ * are only computed when asked for by name or with
+ * {@link HashProfile#TREES}.
+ *
+ * @author rawr51919
+ */
+public enum HashAlgorithm {
+	CRC8("CRC8", Crc8Sink::new, Kind.CHECKSUM),
+	CRC16("CRC16", Crc16Sink::new, Kind.CHECKSUM),
+	CRC32("CRC32", () -> DigestSink.of(new CRC32(), 4), Kind.CHECKSUM),
+	ADLER32("Adler-32", () -> DigestSink.of(new Adler32(), 4), Kind.CHECKSUM),
+	XYZ("XYZ", () -> DigestSink.of(new XYZMessageDigest()), Kind.RESUMABLE),
+	CRC64("CRC64", () -> DigestSink.of(new CRC64(), 8), Kind.CHECKSUM),
+	MD2("MD2", () -> DigestSink.of(DigestUtils.getMd2Digest()), Kind.SEALED),
+	MD4("MD4", () -> DigestSink.of(new MD4()), Kind.RESUMABLE),
+	MD5("MD5", () -> DigestSink.of(DigestUtils.getMd5Digest()), Kind.SEALED),
+	RIPEMD("RIPEMD", () -> DigestSink.of(new RIPEMD()), Kind.RESUMABLE),
+	RIPEMD128("RIPEMD128", () -> DigestSink.of(new RIPEMD128()), Kind.RESUMABLE),
+	RIPEMD160("RIPEMD160", () -> DigestSink.of(new RIPEMD160()), Kind.RESUMABLE),
+	SHA0("SHA-0", () -> DigestSink.of(new SHA0()), Kind.RESUMABLE),
+	SHA1("SHA-1/SHA160", () -> DigestSink.of(DigestUtils.getSha1Digest()), Kind.SEALED),
+	TIGER("Tiger", () -> DigestSink.of(new Tiger()), Kind.RESUMABLE),
+	TIGER2("Tiger2", () -> DigestSink.of(new Tiger2()), Kind.RESUMABLE),
+	SHA224("SHA224", () -> DigestSink.of(DigestUtils.getSha224Digest()), Kind.SEALED),
+	SHA256("SHA256", () -> DigestSink.of(DigestUtils.getSha256Digest()), Kind.SEALED),
+	SHA384("SHA384", () -> DigestSink.of(DigestUtils.getSha384Digest()), Kind.SEALED),
+	SHA512("SHA512", () -> DigestSink.of(DigestUtils.getSha512Digest()), Kind.SEALED),
+	WHIRLPOOL0("Whirlpool 2000", () -> DigestSink.of(new Whirlpool0()), Kind.RESUMABLE),
+	WHIRLPOOL1("Whirlpool 2001", () -> DigestSink.of(new Whirlpool1()), Kind.RESUMABLE),
+	WHIRLPOOL("Whirlpool 2003", () -> DigestSink.of(new Whirlpool()), Kind.RESUMABLE),
+	RIPEMD160_TREE("RIPEMD160 Tree", () -> DigestSink.of(new TreeDigest(new RIPEMD160())), Kind.RESUMABLE, false),
+	WHIRLPOOL_TREE("Whirlpool 2003 Tree", () -> DigestSink.of(new TreeDigest(new Whirlpool())), Kind.RESUMABLE, false),
+	TTH("Tiger Tree (TTH)", () -> DigestSink.of(new TigerTree()), Kind.RESUMABLE, false);
+
+	private static final Set<HashAlgorithm> STANDARD;
+
+	static {
+		EnumSet<HashAlgorithm> standard = EnumSet.noneOf(HashAlgorithm.class);
+		for (HashAlgorithm algorithm : values())
+			if (algorithm.standard)
+				standard.add(algorithm);
+		STANDARD = Collections.unmodifiableSet(standard);
+	}
+
+	// what the sinks of an algorithm can do, declared here so that asking
+	// does not build one
+	private enum Kind {
+		// checksums, which are their own state and can be combined
+		CHECKSUM(true, true),
+		// digests that export their midstate
+		RESUMABLE(true, false),
+		// the JDK's digests, whose state cannot be read
+		SEALED(false, false);
+
+		final boolean resumable;
+		final boolean combinable;
+
+		Kind(boolean resumable, boolean combinable) {
+			this.resumable = resumable;
+			this.combinable = combinable;
+		}
+	}
+
+	private final String label;
+	private final Supplier<DigestSink> factory;
+	private final Kind kind;
+	private final boolean standard;
+
+	HashAlgorithm(String label, Supplier<DigestSink> factory, Kind kind) {
+		this(label, factory, kind, true);
+	}
+
+	HashAlgorithm(String label, Supplier<DigestSink> factory, Kind kind, boolean standard) {
+		this.label = label;
+		this.factory = factory;
+		this.kind = kind;
+		this.standard = standard;
+	}
+
+	/**
+	 * Get the algorithms computed when no selection is made: every one
+	 * except the opt-in tree variants.
+	 *
+	 * @return an unmodifiable set of algorithms, in display order
+	 */
+	public static Set<HashAlgorithm> standard() {
+		return STANDARD;
+	}
+
+	/**
+	 * Get the name shown next to the result in the GUIs.
+	 *
+	 * @return the display name
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Create a new, independent engine for this algorithm.
+	 *
+	 * @return a freshly-initialized sink
+	 */
+	public DigestSink newSink() {
+		return factory.get();
+	}
+
+	/**
+	 * Tell whether a computation with this algorithm can be saved and
+	 * resumed later. See {@link DigestSink#isResumable}.
+	 *
+	 * @return {@code true} if its state can be exported
+	 */
+	public boolean isResumable() {
+		return kind.resumable;
+	}
+
+	/**
+	 * Tell whether computations with this algorithm over consecutive chunks
+	 * can be combined into one. See {@link DigestSink#isCombinable}.
+	 *
+	 * @return {@code true} if computations can be combined
+	 */
+	public boolean isCombinable() {
+		return kind.combinable;
+	}
+
+	/**
+	 * Create a fan-out over fresh engines for every
+	 * {@linkplain #standard() standard} algorithm, in declaration order.
+	 *
+	 * @return the fan-out engine
+	 */
+	public static MultiDigest newMultiDigest() {
+		return newMultiDigest(STANDARD);
+	}
+
+	/**
+	 * Create a fan-out over fresh engines for {@code algorithms}, in
+	 * iteration order.
+	 *
+	 * @param algorithms the algorithms to compute
+	 * @return the fan-out engine
+	 */
+	public static MultiDigest newMultiDigest(Collection<HashAlgorithm> algorithms) {
+		DigestSink[] sinks = new DigestSink[algorithms.size()];
+		int i = 0;
+		for (HashAlgorithm algorithm : algorithms)
+			sinks[i++] = algorithm.newSink();
+		return new MultiDigest(sinks);
+	}
+
+	// CRC8 only exists as static helpers, so the running value lives here (the
+	// library class is spelled out because the CRC8 constant shadows it)
+	private static final class Crc8Sink implements DigestSink {
+		private byte crc;
+
+		public void update(byte[] buf, int off, int len) {
+			crc = org.kc7bfi.jflac.util.CRC8.updateBlock(buf, off, len, crc);
+		}
+
+		public byte[] digest() {
+			byte[] out = { crc };
+			crc = 0;
+			return out;
+		}
+
+		public void reset() {
+			crc = 0;
+		}
+
+		public int getDigestLength() {
+			return 1;
+		}
+
+		public boolean isResumable() {
+			return true;
+		}
+
+		public byte[] exportState() {
+			return new byte[] { crc };
+		}
+
+		public void importState(byte[] state) {
+			crc = (byte) DigestSink.fromBytes(state, 1);
+		}
+
+		public boolean isCombinable() {
+			return true;
+		}
+
+		public void combine(byte[] next, long length) {
+			crc = org.kc7bfi.jflac.util.CRC8.combine(crc, (byte) DigestSink.fromBytes(next, 1), length);
+		}
+	}
+
+	// CRC16 cannot implement Checksum: its int update(byte[]) clashes with it
+	// (and its static methods are spelled out, as the CRC16 constant obscures
+	// the class name in expressions)
+	private static final class Crc16Sink implements DigestSink {
+		private final CRC16 crc = new CRC16();
+
+		public void update(byte[] buf, int off, int len) {
+			crc.update(buf, off, len);
+		}
+
+		public void update(ByteBuffer buf) {
+			crc.update(buf);
+		}
+
+		public boolean supportsDirectBuffers() {
+			return true;
+		}
+
+		public byte[] digest() {
+			byte[] out = DigestSink.toBytes(crc.getValue(), 2);
+			crc.reset();
+			return out;
+		}
+
+		public void reset() {
+			crc.reset();
+		}
+
+		public int getDigestLength() {
+			return 2;
+		}
+
+		// the whole register, as CRC16 keeps more than 16 bits of it
+		public boolean isResumable() {
+			return true;
+		}
+
+		public byte[] exportState() {
+			return DigestSink.toBytes(crc.getState(), 4);
+		}
+
+		public void importState(byte[] state) {
+			crc.setState((int) DigestSink.fromBytes(state, 4));
+		}
+
+		public boolean isCombinable() {
+			return true;
+		}
+
+		public void combine(byte[] next, long length) {
+			crc.setState(godlikeblock.util.CRC16.combine(crc.getState(), (int) DigestSink.fromBytes(next, 4), length));
+		}
+	}
+}
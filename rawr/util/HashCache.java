@@ -0,0 +1,266 @@
+package rawr.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of hash outputs, so that unchanged files are not read
+ * again.
+ *
+ * Entries are keyed by the file's canonical path and are only used while the
+ * file's size, modification time and file key (device and inode, where the
+ * platform has them) are the same as when it was hashed. Each entry keeps
+ * every algorithm computed for the file so far, so runs with different
+ * profiles add to the same entry.
+ *
+ * The cache holds at most a fixed number of entries and evicts the least
+ * recently used ones. It is thread-safe. It lives in memory: {@link #load}
+ * reads it from its store file and {@link #save} writes it back, through a
+ * temporary file that is atomically moved into place, so a crash never
+ * leaves a half-written store behind.
+ *
+ * @author rawr51919
+ */
+public class HashCache {
+
+	/** Default maximum number of entries. */
+	public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+	private static final int MAGIC = 0x48434348; // "HCCH"
+	private static final int VERSION = 1;
+
+	private final Path store;
+	private final int maxEntries;
+	// in access order, eldest first; guarded by itself
+	private final LinkedHashMap<String, Entry> entries;
+	private volatile boolean dirty;
+
+	/**
+	 * Create an empty cache backed by {@code store}. Call {@link #load} to
+	 * read entries saved by an earlier run.
+	 *
+	 * @param store      the file the cache is loaded from and saved to
+	 * @param maxEntries the maximum number of entries
+	 */
+	public HashCache(Path store, int maxEntries) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("Maximum entry count must be positive: " + maxEntries);
+		this.store = store;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > HashCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Get the file the cache is loaded from and saved to.
+	 *
+	 * @return the store file
+	 */
+	public Path getStore() {
+		return store;
+	}
+
+	/**
+	 * Get the maximum number of entries.
+	 *
+	 * @return the entry limit
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Get the number of entries.
+	 *
+	 * @return the entry count
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Hash {@code file} with {@code session}, unless the cache already has
+	 * every output the session computes for this exact file. Fresh outputs
+	 * are added to the cache, provided the file did not change while it was
+	 * read.
+	 *
+	 * @param session the hashes to compute
+	 * @param file    the file to hash
+	 * @return the hash outputs
+	 * @throws IOException if the file cannot be read
+	 */
+	public HashResult hash(HashSession session, Path file) throws IOException {
+		FileIdentity before = FileIdentity.of(file);
+		HashResult cached = get(before, session.getAlgorithms());
+		if (cached != null)
+			return cached;
+		HashResult result = session.hash(file.toFile());
+		if (before.equals(FileIdentity.of(file)))
+			put(before, result);
+		return result;
+	}
+
+	/**
+	 * Look up the outputs of {@code algorithms} for {@code file}.
+	 *
+	 * @param file       the file
+	 * @param algorithms the algorithms needed
+	 * @return the cached outputs, or {@code null} if the file changed since
+	 *         it was cached or any of the algorithms is missing
+	 * @throws IOException if the file's attributes cannot be read
+	 */
+	public HashResult get(Path file, List<HashAlgorithm> algorithms) throws IOException {
+		return get(FileIdentity.of(file), algorithms);
+	}
+
+	/**
+	 * Add the outputs in {@code result} to the entry for {@code file}, as it
+	 * is now.
+	 *
+	 * @param file   the file
+	 * @param result its hash outputs
+	 * @throws IOException if the file's attributes cannot be read
+	 */
+	public void put(Path file, HashResult result) throws IOException {
+		put(FileIdentity.of(file), result);
+	}
+
+	private HashResult get(FileIdentity id, List<HashAlgorithm> algorithms) {
+		byte[][] outputs = new byte[algorithms.size()][];
+		synchronized (entries) {
+			Entry entry = entries.get(id.path);
+			if (entry == null || !entry.identity.equals(id))
+				return null;
+			for (int i = 0; i < outputs.length; i++)
+				if ((outputs[i] = entry.hashes.get(algorithms.get(i))) == null)
+					return null;
+		}
+		return new HashResult(algorithms, outputs);
+	}
+
+	private void put(FileIdentity id, HashResult result) {
+		synchronized (entries) {
+			Entry entry = entries.get(id.path);
+			if (entry == null || !entry.identity.equals(id)) {
+				entry = new Entry(id);
+				entries.put(id.path, entry);
+			}
+			for (HashAlgorithm algorithm : result.getAlgorithms())
+				entry.hashes.put(algorithm, result.get(algorithm));
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Replace the contents of the cache with the entries in the store file.
+	 * A missing store file leaves the cache empty.
+	 *
+	 * @throws IOException if the store file cannot be read or is corrupt
+	 */
+	public void load() throws IOException {
+		List<Entry> loaded = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(store)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("Not a hash cache: " + store);
+			for (int n = in.readInt(); n > 0; n--) {
+				Entry entry = new Entry(FileIdentity.read(in));
+				for (int h = in.readUnsignedByte(); h > 0; h--) {
+					String name = in.readUTF();
+					byte[] hash = new byte[in.readUnsignedShort()];
+					in.readFully(hash);
+					// algorithms dropped since the cache was written are skipped
+					for (HashAlgorithm algorithm : HashAlgorithm.values())
+						if (algorithm.name().equals(name))
+							entry.hashes.put(algorithm, hash);
+				}
+				loaded.add(entry);
+			}
+		} catch (NoSuchFileException e) {
+			// nothing saved yet
+		}
+		synchronized (entries) {
+			entries.clear();
+			// saved eldest first, so this restores the LRU order
+			for (Entry entry : loaded)
+				entries.put(entry.identity.path, entry);
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Write the cache to its store file, if it changed since it was loaded
+	 * or last saved.
+	 *
+	 * @throws IOException if the store file cannot be written
+	 */
+	public void save() throws IOException {
+		if (!dirty)
+			return;
+		List<Entry> snapshot;
+		synchronized (entries) {
+			dirty = false;
+			snapshot = new ArrayList<>(entries.size());
+			for (Entry entry : entries.values())
+				snapshot.add(entry.copy());
+		}
+		Path dir = store.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path temp = Files.createTempFile(dir, store.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(snapshot.size());
+				for (Entry entry : snapshot) {
+					entry.identity.write(out);
+					out.writeByte(entry.hashes.size());
+					for (Map.Entry<HashAlgorithm, byte[]> hash : entry.hashes.entrySet()) {
+						out.writeUTF(hash.getKey().name());
+						out.writeShort(hash.getValue().length);
+						out.write(hash.getValue());
+					}
+				}
+			}
+			Files.move(temp, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			dirty = true;
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	private static final class Entry {
+		final FileIdentity identity;
+		final Map<HashAlgorithm, byte[]> hashes = new EnumMap<>(HashAlgorithm.class);
+
+		Entry(FileIdentity identity) {
+			this.identity = identity;
+		}
+
+		Entry copy() {
+			Entry copy = new Entry(identity);
+			copy.hashes.putAll(hashes);
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package rawr.util;
+
+/**
+ * Receives progress from a running {@link FileHasher} call, and can cancel it.
+ *
+ * {@link #bytesHashed} and {@link #isCancelled} are called by the thread that
+ * reads the input (by every reading thread, with a {@link ParallelChecksum}).
+ * {@link #digestReady} is called as soon as each result is
+ * known, which with a {@link ParallelDigest} happens on the worker threads,
+ * so fast algorithms report while slow ones are still running. Implementations
+ * must therefore be thread-safe and should return quickly.
+ *
+ * @author rawr51919
+ */
+public interface HashListener {
+
+	/** A listener that ignores everything and never cancels. */
+	HashListener NONE = new HashListener() {
+	};
+
+	/**
+	 * Called each time another buffer of input has been handed to the
+	 * digests.
+	 *
+	 * @param total the number of bytes read so far
+	 */
+	default void bytesHashed(long total) {
+	}
+
+	/**
+	 * Called once per sink when its result is ready. The sink is identified
+	 * by its index in the {@link MultiDigest} that was passed to the
+	 * hasher.
+	 *
+	 * @param index the sink index
+	 * @param hash  the hash output
+	 */
+	default void digestReady(int index, byte[] hash) {
+	}
+
+	/**
+	 * Checked before each buffer is read. Once this returns {@code true},
+	 * the hasher stops reading, resets the digests and throws a
+	 * {@link java.util.concurrent.CancellationException}.
+	 *
+	 * @return whether to stop hashing
+	 */
+	default boolean isCancelled() {
+		return false;
+	}
+}
@@ -0,0 +1,87 @@
+package rawr.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Named selections of hashes and encodings. Only the members of the chosen
+ * profile are ever instantiated or run, so a single-algorithm profile costs
+ * one engine instead of 23 (and, in the encoding GUI, none of the 60-odd
+ * encodings).
+ *
+ * @author rawr51919
+ */
+public enum HashProfile {
+	ALL("All hashes and encodings", HashAlgorithm.standard(), EnumSet.allOf(Encoding.class)),
+	HASHES("All hashes", HashAlgorithm.standard(), EnumSet.noneOf(Encoding.class)),
+	CHECKSUMS("Checksums only", EnumSet.of(HashAlgorithm.CRC8, HashAlgorithm.CRC16, HashAlgorithm.CRC32,
+			HashAlgorithm.ADLER32, HashAlgorithm.XYZ, HashAlgorithm.CRC64), EnumSet.noneOf(Encoding.class)),
+	SHA2("SHA-2 only", EnumSet.of(HashAlgorithm.SHA224, HashAlgorithm.SHA256, HashAlgorithm.SHA384,
+			HashAlgorithm.SHA512), EnumSet.noneOf(Encoding.class)),
+	SHA256("SHA256 only", EnumSet.of(HashAlgorithm.SHA256), EnumSet.noneOf(Encoding.class)),
+	MD5("MD5 only", EnumSet.of(HashAlgorithm.MD5), EnumSet.noneOf(Encoding.class)),
+	TREES("Tree hashes (parallel)", EnumSet.of(HashAlgorithm.RIPEMD160_TREE, HashAlgorithm.WHIRLPOOL_TREE,
+			HashAlgorithm.TTH), EnumSet.noneOf(Encoding.class)),
+	ENCODINGS("All encodings", EnumSet.noneOf(HashAlgorithm.class), EnumSet.allOf(Encoding.class));
+
+	private final String label;
+	private final List<HashAlgorithm> algorithms;
+	private final Set<Encoding> encodings;
+
+	HashProfile(String label, Set<HashAlgorithm> algorithms, Set<Encoding> encodings) {
+		this.label = label;
+		this.algorithms = Collections.unmodifiableList(Arrays.asList(algorithms.toArray(new HashAlgorithm[0])));
+		this.encodings = Collections.unmodifiableSet(encodings);
+	}
+
+	/**
+	 * Get the name shown in the GUIs' profile selector.
+	 *
+	 * @return the display name
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Get the hashes selected by this profile.
+	 *
+	 * @return an unmodifiable list of algorithms, in display order
+	 */
+	public List<HashAlgorithm> getAlgorithms() {
+		return algorithms;
+	}
+
+	/**
+	 * Get the encodings selected by this profile.
+	 *
+	 * @return an unmodifiable set of encodings, in display order
+	 */
+	public Set<Encoding> getEncodings() {
+		return encodings;
+	}
+
+	/**
+	 * Find a profile by name, ignoring case and treating {@code -} as
+	 * {@code _}, so that {@code sha2} and {@code checksums} both work.
+	 *
+	 * @param name the profile name
+	 * @return the profile
+	 * @throws IllegalArgumentException if there is no such profile
+	 */
+	public static HashProfile forName(String name) {
+		for (HashProfile profile : values())
+			if (profile.name().equalsIgnoreCase(name.trim().replace('-', '_')))
+				return profile;
+		throw new IllegalArgumentException("Unknown profile: " + name);
+	}
+
+	// shown as is in combo boxes
+	@Override
+	public String toString() {
+		return label;
+	}
+}
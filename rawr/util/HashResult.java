@@ -0,0 +1,130 @@
+package rawr.util;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outputs of one hashing run, one per algorithm. Instances are immutable:
+ * the outputs are copied in and out, so a result can be handed to any thread.
+ *
+ * @author rawr51919
+ */
+public final class HashResult {
+
+	private final Map<HashAlgorithm, byte[]> hashes = new EnumMap<>(HashAlgorithm.class);
+
+	/**
+	 * Pair algorithms with their outputs.
+	 *
+	 * @param algorithms the algorithms, in the order of {@code outputs}
+	 * @param outputs    one hash output per algorithm
+	 */
+	public HashResult(List<HashAlgorithm> algorithms, byte[][] outputs) {
+		if (algorithms.size() != outputs.length)
+			throw new IllegalArgumentException(
+					"Got " + outputs.length + " outputs for " + algorithms.size() + " algorithms");
+		for (int i = 0; i < outputs.length; i++)
+			hashes.put(algorithms.get(i), outputs[i].clone());
+	}
+
+	/**
+	 * Get the algorithms in this result, in display order.
+	 *
+	 * @return an unmodifiable set of algorithms
+	 */
+	public Set<HashAlgorithm> getAlgorithms() {
+		return Collections.unmodifiableSet(hashes.keySet());
+	}
+
+	/**
+	 * Check whether this result holds an output for {@code algorithm}.
+	 *
+	 * @param algorithm the algorithm
+	 * @return {@code true} if it was computed
+	 */
+	public boolean contains(HashAlgorithm algorithm) {
+		return hashes.containsKey(algorithm);
+	}
+
+	/**
+	 * Get the output of {@code algorithm}.
+	 *
+	 * @param algorithm the algorithm
+	 * @return a copy of the hash output
+	 * @throws IllegalArgumentException if the algorithm was not computed
+	 */
+	public byte[] get(HashAlgorithm algorithm) {
+		return output(algorithm).clone();
+	}
+
+	/**
+	 * Get the length of the output of {@code algorithm}.
+	 *
+	 * @param algorithm the algorithm
+	 * @return the output length, in bytes
+	 * @throws IllegalArgumentException if the algorithm was not computed
+	 */
+	public int getLength(HashAlgorithm algorithm) {
+		return output(algorithm).length;
+	}
+
+	/**
+	 * Get the output of {@code algorithm} as lowercase hexadecimal.
+	 *
+	 * @param algorithm the algorithm
+	 * @return the hash output, in hex
+	 * @throws IllegalArgumentException if the algorithm was not computed
+	 */
+	public String getHex(HashAlgorithm algorithm) {
+		return HexFormatter.LOWER.toString(output(algorithm));
+	}
+
+	/**
+	 * Append the output of {@code algorithm} as lowercase hexadecimal,
+	 * without copying it or creating a string.
+	 *
+	 * @param algorithm the algorithm
+	 * @param out       the builder to append to
+	 * @return {@code out}
+	 * @throws IllegalArgumentException if the algorithm was not computed
+	 */
+	public StringBuilder appendHex(HashAlgorithm algorithm, StringBuilder out) {
+		return HexFormatter.LOWER.append(out, output(algorithm));
+	}
+
+	/**
+	 * Write the output of {@code algorithm} as lowercase ASCII hexadecimal,
+	 * without copying it.
+	 *
+	 * @param algorithm the algorithm
+	 * @param dst       receives {@code 2 * getLength(algorithm)} digits
+	 * @param dstOff    where the first digit goes in {@code dst}
+	 * @return the index in {@code dst} just after the last digit
+	 * @throws IllegalArgumentException if the algorithm was not computed
+	 */
+	public int formatHex(HashAlgorithm algorithm, byte[] dst, int dstOff) {
+		byte[] hash = output(algorithm);
+		return HexFormatter.LOWER.format(hash, 0, hash.length, dst, dstOff);
+	}
+
+	private byte[] output(HashAlgorithm algorithm) {
+		byte[] hash = hashes.get(algorithm);
+		if (hash == null)
+			throw new IllegalArgumentException("Not computed: " + algorithm);
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder("HashResult[");
+		for (HashAlgorithm algorithm : hashes.keySet()) {
+			if (out.length() > "HashResult[".length())
+				out.append(", ");
+			appendHex(algorithm, out.append(algorithm.name()).append('='));
+		}
+		return out.append(']').toString();
+	}
+}
@@ -0,0 +1,183 @@
+package rawr.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A thread-safe way to hash data with a fixed set of algorithms. Each call
+ * returns its own immutable {@link HashResult}, so any number of threads can
+ * hash through one session at once.
+ *
+ * Engines are pooled per thread: the first call on a thread creates a
+ * {@link MultiDigest} for it, and later calls on that thread reuse it, so
+ * batch runs do not rebuild 23 engines (and their tables) for every input.
+ * Engines are always reset before they are reused.
+ *
+ * A session must not be re-entered from a {@link HashListener} callback on the
+ * hashing thread, which would share that thread's engine.
+ *
+ * @author rawr51919
+ */
+public class HashSession {
+
+	private final List<HashAlgorithm> algorithms;
+	private final FileHasher hasher;
+	private final ThreadLocal<MultiDigest> engines;
+	// set when every algorithm is a checksum that can be computed in chunks
+	private final ParallelChecksum checksums;
+
+	/**
+	 * Create a session for every {@linkplain HashAlgorithm#standard()
+	 * standard} algorithm, with a default {@link FileHasher}.
+	 */
+	public HashSession() {
+		this(HashAlgorithm.standard(), new FileHasher());
+	}
+
+	/**
+	 * Create a session for every {@linkplain HashAlgorithm#standard()
+	 * standard} algorithm.
+	 *
+	 * @param hasher reads files and streams
+	 */
+	public HashSession(FileHasher hasher) {
+		this(HashAlgorithm.standard(), hasher);
+	}
+
+	/**
+	 * Create a session for the hashes of {@code profile}.
+	 *
+	 * @param profile the algorithms to compute
+	 * @param hasher  reads files and streams
+	 */
+	public HashSession(HashProfile profile, FileHasher hasher) {
+		this(profile.getAlgorithms(), hasher);
+	}
+
+	/**
+	 * Create a session.
+	 *
+	 * @param algorithms the algorithms to compute, in the order their
+	 *                   outputs are reported to {@link HashListener}s
+	 * @param hasher     reads files and streams
+	 */
+	public HashSession(Collection<HashAlgorithm> algorithms, FileHasher hasher) {
+		this.algorithms = Collections.unmodifiableList(new ArrayList<>(algorithms));
+		this.hasher = hasher;
+		this.engines = ThreadLocal.withInitial(() -> HashAlgorithm.newMultiDigest(this.algorithms));
+		boolean combinable = !this.algorithms.isEmpty();
+		for (HashAlgorithm algorithm : this.algorithms)
+			combinable &= algorithm.isCombinable();
+		this.checksums = combinable && hasher.getThreads() > 1 ? new ParallelChecksum(this.algorithms) : null;
+	}
+
+	/**
+	 * Get the algorithms computed by this session. A {@link HashListener}
+	 * sees the output of {@code getAlgorithms().get(i)} as index {@code i}.
+	 *
+	 * @return an unmodifiable list of algorithms
+	 */
+	public List<HashAlgorithm> getAlgorithms() {
+		return algorithms;
+	}
+
+	/**
+	 * Get the hasher used for files and streams.
+	 *
+	 * @return the file hasher
+	 */
+	public FileHasher getHasher() {
+		return hasher;
+	}
+
+	/**
+	 * Hash {@code data} on the calling thread.
+	 *
+	 * @param data the data to hash
+	 * @return the hash outputs
+	 */
+	public HashResult hash(byte[] data) {
+		MultiDigest engine = engines.get();
+		try {
+			engine.update(data);
+			return new HashResult(algorithms, engine.digest());
+		} finally {
+			engine.reset();
+		}
+	}
+
+	/**
+	 * Hash a file.
+	 *
+	 * @param file the file to read
+	 * @return the hash outputs
+	 * @throws IOException if the file cannot be read
+	 */
+	public HashResult hash(File file) throws IOException {
+		return hash(file, HashListener.NONE);
+	}
+
+	/**
+	 * Hash a file, reporting progress to {@code listener}. When every
+	 * algorithm is a {@linkplain HashAlgorithm#isCombinable combinable}
+	 * checksum and the hasher may use more than one thread, large files are
+	 * checksummed in chunks by a {@link ParallelChecksum} on the common
+	 * pool.
+	 *
+	 * @param file     the file to read
+	 * @param listener the progress listener
+	 * @return the hash outputs
+	 * @throws IOException if the file cannot be read
+	 * @throws java.util.concurrent.CancellationException if {@code listener}
+	 *         cancelled the call
+	 */
+	public HashResult hash(File file, HashListener listener) throws IOException {
+		if (checksums != null && file.length() >= FileHasher.PARALLEL_THRESHOLD)
+			return checksums.hash(file.toPath(), listener);
+		return new HashResult(algorithms, hasher.hash(file, engines.get(), listener));
+	}
+
+	/**
+	 * Hash the rest of a stream, which is read to its end but not closed.
+	 *
+	 * @param in the stream to read
+	 * @return the hash outputs
+	 * @throws IOException if the stream cannot be read
+	 */
+	public HashResult hash(InputStream in) throws IOException {
+		return hash(in, HashListener.NONE);
+	}
+
+	/**
+	 * Hash the rest of a stream, reporting progress to {@code listener}. The
+	 * stream is read to its end but not closed. File streams are read as the
+	 * hasher's {@linkplain FileHasher#getInputMode input mode} says, or
+	 * checksummed in chunks like {@linkplain #hash(File, HashListener) files}.
+	 *
+	 * @param in       the stream to read
+	 * @param listener the progress listener
+	 * @return the hash outputs
+	 * @throws IOException if the stream cannot be read
+	 * @throws java.util.concurrent.CancellationException if {@code listener}
+	 *         cancelled the call
+	 */
+	public HashResult hash(InputStream in, HashListener listener) throws IOException {
+		if (checksums != null && in instanceof FileInputStream) {
+			FileChannel channel = ((FileInputStream) in).getChannel();
+			if (channel.size() - channel.position() >= FileHasher.PARALLEL_THRESHOLD)
+				return checksums.hash(channel, listener);
+		}
+		MultiDigest engine = engines.get();
+		byte[][] outputs = in instanceof FileInputStream
+				? hasher.hash((FileInputStream) in, engine, listener)
+				: hasher.hash(in, engine, listener);
+		return new HashResult(algorithms, outputs);
+	}
+}
@@ -0,0 +1,219 @@
+package rawr.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes hash outputs and checksum values as hexadecimal, without creating
+ * intermediate objects. Each formatter holds a 512-entry table with the two
+ * digits of every byte value, so a byte costs one lookup and two stores.
+ *
+ * The output goes into a caller's {@code char[]}, ASCII {@code byte[]},
+ * {@link ByteBuffer} or {@link StringBuilder}, which can be reused from one
+ * hash to the next; {@link #toString(byte[])} is there for when a
+ * {@code String} is wanted anyway. Formatters are immutable and may be shared
+ * between threads.
+ *
+ * @author rawr51919
+ */
+public final class HexFormatter {
+
+	/** Formats with the digits {@code 0-9A-F}. */
+	public static final HexFormatter UPPER = new HexFormatter("0123456789ABCDEF");
+
+	/** Formats with the digits {@code 0-9a-f}. */
+	public static final HexFormatter LOWER = new HexFormatter("0123456789abcdef");
+
+	// the high digit of b at 2 * b, its low digit at 2 * b + 1
+	private final char[] chars = new char[512];
+	private final byte[] bytes = new byte[512];
+
+	private HexFormatter(String digits) {
+		for (int b = 0; b < 256; b++) {
+			chars[2 * b] = digits.charAt(b >>> 4);
+			chars[2 * b + 1] = digits.charAt(b & 0xf);
+			bytes[2 * b] = (byte) chars[2 * b];
+			bytes[2 * b + 1] = (byte) chars[2 * b + 1];
+		}
+	}
+
+	/**
+	 * Write bytes as hex digits, two per byte, high digit first.
+	 *
+	 * @param src    the bytes to format
+	 * @param off    the offset of the first byte in {@code src}
+	 * @param len    the number of bytes
+	 * @param dst    receives {@code 2 * len} digits
+	 * @param dstOff where the first digit goes in {@code dst}
+	 * @return the index in {@code dst} just after the last digit
+	 */
+	public int format(byte[] src, int off, int len, char[] dst, int dstOff) {
+		checkRange(src.length, off, len);
+		checkRange(dst.length, dstOff, 2 * len);
+		for (int end = off + len; off < end; off++) {
+			int i = (src[off] & 0xff) << 1;
+			dst[dstOff++] = chars[i];
+			dst[dstOff++] = chars[i + 1];
+		}
+		return dstOff;
+	}
+
+	/**
+	 * Write bytes as ASCII hex digits, two per byte, high digit first.
+	 *
+	 * @param src    the bytes to format
+	 * @param off    the offset of the first byte in {@code src}
+	 * @param len    the number of bytes
+	 * @param dst    receives {@code 2 * len} digits
+	 * @param dstOff where the first digit goes in {@code dst}
+	 * @return the index in {@code dst} just after the last digit
+	 */
+	public int format(byte[] src, int off, int len, byte[] dst, int dstOff) {
+		checkRange(src.length, off, len);
+		checkRange(dst.length, dstOff, 2 * len);
+		for (int end = off + len; off < end; off++) {
+			int i = (src[off] & 0xff) << 1;
+			dst[dstOff++] = bytes[i];
+			dst[dstOff++] = bytes[i + 1];
+		}
+		return dstOff;
+	}
+
+	/**
+	 * Write bytes as ASCII hex digits at the buffer's position, which is
+	 * advanced past them.
+	 *
+	 * @param src the bytes to format
+	 * @param off the offset of the first byte in {@code src}
+	 * @param len the number of bytes
+	 * @param dst receives {@code 2 * len} digits
+	 * @throws BufferOverflowException if {@code dst} has less room
+	 */
+	public void format(byte[] src, int off, int len, ByteBuffer dst) {
+		checkRange(src.length, off, len);
+		if (dst.hasArray()) {
+			int pos = dst.position();
+			if (dst.remaining() < 2 * len)
+				throw new BufferOverflowException();
+			format(src, off, len, dst.array(), dst.arrayOffset() + pos);
+			dst.position(pos + 2 * len);
+			return;
+		}
+		for (int end = off + len; off < end; off++) {
+			int i = (src[off] & 0xff) << 1;
+			dst.put(bytes[i]).put(bytes[i + 1]);
+		}
+	}
+
+	/**
+	 * Write the low {@code digits} hex digits of a value, most significant
+	 * first, as checksums are usually shown: {@code format(crc, 8, ...)}
+	 * gives the same digits as {@code String.format("%08X", crc)}.
+	 *
+	 * @param value  the value to format
+	 * @param digits the number of digits, from 1 to 16
+	 * @param dst    receives the digits
+	 * @param dstOff where the first digit goes in {@code dst}
+	 * @return the index in {@code dst} just after the last digit
+	 */
+	public int format(long value, int digits, char[] dst, int dstOff) {
+		checkDigits(digits);
+		checkRange(dst.length, dstOff, digits);
+		for (int i = dstOff + digits - 1; i >= dstOff; i--, value >>>= 4)
+			dst[i] = chars[2 * ((int) value & 0xf) + 1];
+		return dstOff + digits;
+	}
+
+	/**
+	 * Write the low {@code digits} hex digits of a value as ASCII, most
+	 * significant first.
+	 *
+	 * @param value  the value to format
+	 * @param digits the number of digits, from 1 to 16
+	 * @param dst    receives the digits
+	 * @param dstOff where the first digit goes in {@code dst}
+	 * @return the index in {@code dst} just after the last digit
+	 */
+	public int format(long value, int digits, byte[] dst, int dstOff) {
+		checkDigits(digits);
+		checkRange(dst.length, dstOff, digits);
+		for (int i = dstOff + digits - 1; i >= dstOff; i--, value >>>= 4)
+			dst[i] = bytes[2 * ((int) value & 0xf) + 1];
+		return dstOff + digits;
+	}
+
+	/**
+	 * Append bytes as hex digits. Nothing is allocated once {@code out} has
+	 * room for them.
+	 *
+	 * @param out the builder to append to
+	 * @param src the bytes to format
+	 * @return {@code out}
+	 */
+	public StringBuilder append(StringBuilder out, byte[] src) {
+		return append(out, src, 0, src.length);
+	}
+
+	/**
+	 * Append bytes as hex digits. Nothing is allocated once {@code out} has
+	 * room for them.
+	 *
+	 * @param out the builder to append to
+	 * @param src the bytes to format
+	 * @param off the offset of the first byte in {@code src}
+	 * @param len the number of bytes
+	 * @return {@code out}
+	 */
+	public StringBuilder append(StringBuilder out, byte[] src, int off, int len) {
+		checkRange(src.length, off, len);
+		out.ensureCapacity(out.length() + 2 * len);
+		for (int end = off + len; off < end; off++) {
+			int i = (src[off] & 0xff) << 1;
+			out.append(chars[i]).append(chars[i + 1]);
+		}
+		return out;
+	}
+
+	/**
+	 * Format bytes as a hex string.
+	 *
+	 * @param src the bytes to format
+	 * @return {@code 2 * src.length} hex digits
+	 */
+	public String toString(byte[] src) {
+		byte[] out = new byte[2 * src.length];
+		format(src, 0, src.length, out, 0);
+		return new String(out, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Format the low {@code digits} hex digits of a value as a string.
+	 *
+	 * @param value  the value to format
+	 * @param digits the number of digits, from 1 to 16
+	 * @return the digits, most significant first
+	 */
+	public String toString(long value, int digits) {
+		checkDigits(digits);
+		byte[] out = new byte[digits];
+		format(value, digits, out, 0);
+		return new String(out, StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public String toString() {
+		return this == UPPER ? "HexFormatter.UPPER" : "HexFormatter.LOWER";
+	}
+
+	private static void checkDigits(int digits) {
+		if (digits < 1 || digits > 16)
+			throw new IllegalArgumentException("Between 1 and 16 digits expected: " + digits);
+	}
+
+	private static void checkRange(int length, int off, int len) {
+		if (off < 0 || len < 0 || off > length - len)
+			throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len + ") out of bounds for length "
+					+ length);
+	}
+}
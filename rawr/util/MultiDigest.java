@@ -0,0 +1,266 @@
+package rawr.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single-pass fan-out over several {@link DigestSink}s.
+ *
+ * Input is cut into slices of {@link #getSliceLength()} bytes and each slice
+ * is handed to every sink before moving on to the next one. With the default
+ * slice length a slice is still in L1/L2 when the last sink reads it, so the
+ * input is pulled from main memory once instead of once per algorithm.
+ *
+ * Like the sinks it drives, a {@code MultiDigest} is not thread-safe.
+ *
+ * @author rawr51919
+ */
+public class MultiDigest {
+
+	/** Default slice length: 32 KiB, which fits comfortably in L1d/L2. */
+	public static final int DEFAULT_SLICE_LENGTH = 32 * 1024;
+
+	private final DigestSink[] sinks;
+	private final int sliceLength;
+	private long byteCount;
+	private byte[] scratch;
+
+	/**
+	 * Create a fan-out over {@code sinks} with the default slice length.
+	 *
+	 * @param sinks the sinks to feed, in result order
+	 */
+	public MultiDigest(DigestSink... sinks) {
+		this(DEFAULT_SLICE_LENGTH, sinks);
+	}
+
+	/**
+	 * Create a fan-out over {@code sinks}.
+	 *
+	 * @param sliceLength the number of bytes given to each sink in turn
+	 * @param sinks       the sinks to feed, in result order
+	 */
+	public MultiDigest(int sliceLength, DigestSink... sinks) {
+		if (sliceLength <= 0)
+			throw new IllegalArgumentException("Slice length must be positive: " + sliceLength);
+		this.sliceLength = sliceLength;
+		this.sinks = sinks.clone();
+	}
+
+	/**
+	 * Insert some more bytes into every sink.
+	 *
+	 * @param buf the data bytes
+	 */
+	public void update(byte[] buf) {
+		update(buf, 0, buf.length);
+	}
+
+	/**
+	 * Insert some more bytes into every sink.
+	 *
+	 * @param buf the data buffer
+	 * @param off the data offset in {@code buf}
+	 * @param len the data length (in bytes)
+	 */
+	public void update(byte[] buf, int off, int len) {
+		if (off < 0 || len < 0 || (long) off + len > buf.length)
+			throw new ArrayIndexOutOfBoundsException();
+		byteCount += len;
+		while (len > 0) {
+			int n = Math.min(len, sliceLength);
+			for (DigestSink sink : sinks)
+				sink.update(buf, off, n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Insert the remaining bytes of {@code buf} into every sink; its position
+	 * is advanced to its limit. Heap buffers are read in place. For direct
+	 * and mapped buffers, sinks that {@linkplain DigestSink#supportsDirectBuffers
+	 * support them} read each slice straight from the buffer, and the other
+	 * sinks share a single copy of the slice.
+	 *
+	 * @param buf the data buffer
+	 */
+	public void update(ByteBuffer buf) {
+		if (buf.hasArray()) {
+			update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+			buf.position(buf.limit());
+			return;
+		}
+		byteCount += buf.remaining();
+		ByteBuffer view = buf.duplicate();
+		while (buf.hasRemaining()) {
+			int pos = buf.position();
+			int n = Math.min(buf.remaining(), sliceLength);
+			boolean copied = false;
+			for (DigestSink sink : sinks) {
+				if (sink.supportsDirectBuffers()) {
+					view.limit(pos + n).position(pos);
+					sink.update(view);
+				} else {
+					if (!copied) {
+						if (scratch == null)
+							scratch = new byte[sliceLength];
+						view.limit(pos + n).position(pos);
+						view.get(scratch, 0, n);
+						copied = true;
+					}
+					sink.update(scratch, 0, n);
+				}
+			}
+			buf.position(pos + n);
+		}
+	}
+
+	/**
+	 * Finalize every sink and return their outputs, in the order the sinks
+	 * were given. All sinks are reset.
+	 *
+	 * @return one hash output per sink
+	 */
+	public byte[][] digest() {
+		byte[][] out = new byte[sinks.length][];
+		for (int i = 0; i < sinks.length; i++)
+			out[i] = sinks[i].digest();
+		byteCount = 0;
+		return out;
+	}
+
+	/**
+	 * Reset every sink.
+	 */
+	public void reset() {
+		for (DigestSink sink : sinks)
+			sink.reset();
+		byteCount = 0;
+	}
+
+	/**
+	 * Get the number of sinks fed by this object.
+	 *
+	 * @return the sink count
+	 */
+	public int size() {
+		return sinks.length;
+	}
+
+	/**
+	 * Get one of the sinks fed by this object.
+	 *
+	 * @param index the sink index
+	 * @return the sink
+	 */
+	public DigestSink getSink(int index) {
+		return sinks[index];
+	}
+
+	/**
+	 * Get the slice length.
+	 *
+	 * @return the number of bytes given to each sink in turn
+	 */
+	public int getSliceLength() {
+		return sliceLength;
+	}
+
+	/**
+	 * Tell whether every sink is {@linkplain DigestSink#isResumable
+	 * resumable}.
+	 *
+	 * @return {@code true} if the whole state can be exported
+	 */
+	public boolean isResumable() {
+		for (DigestSink sink : sinks)
+			if (!sink.isResumable())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Export the state of every sink, in sink order.
+	 *
+	 * @return one encoded state per sink
+	 * @throws UnsupportedOperationException if a sink is not resumable
+	 */
+	public byte[][] exportState() {
+		byte[][] states = new byte[sinks.length][];
+		for (int i = 0; i < sinks.length; i++)
+			states[i] = sinks[i].exportState();
+		return states;
+	}
+
+	/**
+	 * Resume a computation exported by {@link #exportState} from an
+	 * engine over the same algorithms, in the same order.
+	 *
+	 * @param states    one encoded state per sink
+	 * @param byteCount the {@linkplain #getByteCount byte count} when the
+	 *                  states were exported
+	 * @throws IllegalArgumentException      if a state is corrupt, in which
+	 *         case the engine is reset
+	 * @throws UnsupportedOperationException if a sink is not resumable
+	 */
+	public void importState(byte[][] states, long byteCount) {
+		if (states.length != sinks.length)
+			throw new IllegalArgumentException("Got " + states.length + " states for " + sinks.length + " sinks");
+		try {
+			for (int i = 0; i < sinks.length; i++)
+				sinks[i].importState(states[i]);
+		} catch (RuntimeException e) {
+			reset();
+			throw e;
+		}
+		this.byteCount = byteCount;
+	}
+
+	/**
+	 * Tell whether every sink is {@linkplain DigestSink#isCombinable
+	 * combinable}.
+	 *
+	 * @return {@code true} if computations over consecutive chunks can be
+	 *         combined
+	 */
+	public boolean isCombinable() {
+		for (DigestSink sink : sinks)
+			if (!sink.isCombinable())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Append a computation exported by {@link #exportState} from an engine
+	 * over the same algorithms, in the same order, which started from a
+	 * reset and hashed the {@code length} bytes that follow this engine's
+	 * input.
+	 *
+	 * @param states one encoded state per sink
+	 * @param length the number of bytes the other engine hashed
+	 * @throws IllegalArgumentException      if a state is corrupt, in which
+	 *         case the engine is reset
+	 * @throws UnsupportedOperationException if a sink is not combinable
+	 */
+	public void combine(byte[][] states, long length) {
+		if (states.length != sinks.length)
+			throw new IllegalArgumentException("Got " + states.length + " states for " + sinks.length + " sinks");
+		try {
+			for (int i = 0; i < sinks.length; i++)
+				sinks[i].combine(states[i], length);
+		} catch (RuntimeException e) {
+			reset();
+			throw e;
+		}
+		byteCount += length;
+	}
+
+	/**
+	 * Get the number of bytes inserted since the last digest or reset.
+	 *
+	 * @return the byte count
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+}
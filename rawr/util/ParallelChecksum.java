@@ -0,0 +1,227 @@
+package rawr.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checksums one large file on many cores. The file is cut into fixed-size
+ * chunks that are read with positional reads and checksummed independently
+ * on a {@link ForkJoinPool}; the partial results are then
+ * {@linkplain DigestSink#combine combined} pairwise, up a balanced tree of
+ * depth log2(chunks). The result is identical to a sequential pass.
+ *
+ * Only {@linkplain HashAlgorithm#isCombinable combinable} algorithms can be
+ * used: CRC8, CRC16, CRC32, Adler-32 and CRC64.
+ *
+ * Progress is reported to the {@link HashListener} by whichever thread read
+ * the bytes, so the totals may arrive slightly out of order. A
+ * {@code ParallelChecksum} only holds its configuration and may be shared
+ * between threads.
+ *
+ * @author rawr51919
+ */
+public class ParallelChecksum {
+
+	/** Default chunk size: 4 MiB. */
+	public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+	private final List<HashAlgorithm> algorithms;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Create a checksummer with the default chunk size, on the common pool.
+	 *
+	 * @param algorithms the algorithms to compute
+	 * @throws IllegalArgumentException if an algorithm is not combinable
+	 */
+	public ParallelChecksum(Collection<HashAlgorithm> algorithms) {
+		this(algorithms, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a checksummer.
+	 *
+	 * @param algorithms the algorithms to compute, in the order their
+	 *                   outputs are reported to {@link HashListener}s
+	 * @param chunkSize  the number of bytes checksummed by each task
+	 * @param pool       runs the tasks
+	 * @throws IllegalArgumentException if an algorithm is not combinable,
+	 *         or the chunk size is out of range
+	 */
+	public ParallelChecksum(Collection<HashAlgorithm> algorithms, int chunkSize, ForkJoinPool pool) {
+		if (chunkSize < FileHasher.MIN_BUFFER_SIZE)
+			throw new IllegalArgumentException("Chunk size must be at least " + FileHasher.MIN_BUFFER_SIZE
+					+ " bytes: " + chunkSize);
+		for (HashAlgorithm algorithm : algorithms)
+			if (!algorithm.isCombinable())
+				throw new IllegalArgumentException("Not combinable: " + algorithm.getLabel());
+		this.algorithms = Collections.unmodifiableList(new ArrayList<>(algorithms));
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Get the algorithms computed by this checksummer.
+	 *
+	 * @return an unmodifiable list of algorithms
+	 */
+	public List<HashAlgorithm> getAlgorithms() {
+		return algorithms;
+	}
+
+	/**
+	 * Get the chunk size.
+	 *
+	 * @return the number of bytes checksummed by each task
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Checksum a file.
+	 *
+	 * @param file the file to read
+	 * @return the checksums
+	 * @throws IOException if the file cannot be read
+	 */
+	public HashResult hash(Path file) throws IOException {
+		return hash(file, HashListener.NONE);
+	}
+
+	/**
+	 * Checksum a file, reporting progress to {@code listener}.
+	 *
+	 * @param file     the file to read
+	 * @param listener the progress listener
+	 * @return the checksums
+	 * @throws IOException if the file cannot be read, or gets shorter while
+	 *         it is read
+	 * @throws CancellationException if {@code listener} cancelled the call
+	 */
+	public HashResult hash(Path file, HashListener listener) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return hash(channel, listener);
+		}
+	}
+
+	/**
+	 * Checksum a channel from its position to its end, reporting progress to
+	 * {@code listener}. The channel is read with positional reads, then left
+	 * open and positioned at its end, as if it had been read through.
+	 *
+	 * @param channel  the channel to read
+	 * @param listener the progress listener
+	 * @return the checksums
+	 * @throws IOException if the channel cannot be read, or gets shorter
+	 *         while it is read
+	 * @throws CancellationException if {@code listener} cancelled the call
+	 */
+	public HashResult hash(FileChannel channel, HashListener listener) throws IOException {
+		Part whole;
+		long start = channel.position();
+		long end = Math.max(start, channel.size());
+		long chunks = Math.max(1, (end - start + chunkSize - 1) / chunkSize);
+		try {
+			whole = pool.invoke(new ChunkTask(channel, start, end, 0, chunks, listener, new AtomicLong()));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		channel.position(end);
+		MultiDigest engine = HashAlgorithm.newMultiDigest(algorithms);
+		engine.importState(whole.states, whole.length);
+		byte[][] out = engine.digest();
+		for (int i = 0; i < out.length; i++)
+			listener.digestReady(i, out[i]);
+		return new HashResult(algorithms, out);
+	}
+
+	// the exported state of an engine that hashed length bytes from a reset
+	private static final class Part {
+		final byte[][] states;
+		final long length;
+
+		Part(byte[][] states, long length) {
+			this.states = states;
+			this.length = length;
+		}
+	}
+
+	// checksums the chunks [first, last), splitting the range in half until
+	// a single chunk is left
+	private final class ChunkTask extends RecursiveTask<Part> {
+		private static final long serialVersionUID = 1L;
+
+		private final transient FileChannel channel;
+		// the bytes to checksum, cut into chunks from start
+		private final long start;
+		private final long end;
+		private final long first;
+		private final long last;
+		private final transient HashListener listener;
+		private final AtomicLong total;
+
+		ChunkTask(FileChannel channel, long start, long end, long first, long last, HashListener listener,
+				AtomicLong total) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.first = first;
+			this.last = last;
+			this.listener = listener;
+			this.total = total;
+		}
+
+		@Override
+		protected Part compute() {
+			if (last - first == 1)
+				return hashChunk();
+			long mid = (first + last) >>> 1;
+			ChunkTask left = new ChunkTask(channel, start, end, first, mid, listener, total);
+			left.fork();
+			Part right = new ChunkTask(channel, start, end, mid, last, listener, total).compute();
+			Part head = left.join();
+			MultiDigest engine = HashAlgorithm.newMultiDigest(algorithms);
+			engine.importState(head.states, head.length);
+			engine.combine(right.states, right.length);
+			return new Part(engine.exportState(), head.length + right.length);
+		}
+
+		private Part hashChunk() {
+			long from = start + first * chunkSize;
+			long to = Math.min(end, from + chunkSize);
+			MultiDigest engine = HashAlgorithm.newMultiDigest(algorithms);
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.max(1, Math.min(FileHasher.DEFAULT_BUFFER_SIZE, to - from)));
+			try {
+				for (long pos = from; pos < to;) {
+					if (listener.isCancelled())
+						throw new CancellationException("Hashing cancelled");
+					buf.clear().limit((int) Math.min(buf.capacity(), to - pos));
+					int n = channel.read(buf, pos);
+					if (n < 0)
+						throw new IOException("File changed while it was hashed");
+					buf.flip();
+					engine.update(buf);
+					pos += n;
+					listener.bytesHashed(total.addAndGet(n));
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return new Part(engine.exportState(), to - from);
+		}
+	}
+}
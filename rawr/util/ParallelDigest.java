@@ -0,0 +1,246 @@
+package rawr.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the sinks of a {@link MultiDigest} on several threads at once. The
+ * calling thread reads the input and publishes it, chunk by chunk, into a
+ * lock-free {@link ChunkRing}; each worker thread consumes every chunk with its
+ * own share of the sinks.
+ *
+ * Sinks are spread over the workers by their {@linkplain DigestCost measured
+ * cost}, heaviest first, each going to the least-loaded worker so far. With
+ * enough cores every expensive algorithm gets a core of its own, and hashing
+ * takes about as long as the slowest single algorithm.
+ *
+ * A {@code ParallelDigest} is used once: {@link #claim}/{@link #publish}
+ * chunks, then call {@link #finish}, or {@link #abort} on error. Only the
+ * thread that created it may call these methods.
+ *
+ * @author rawr51919
+ */
+public class ParallelDigest {
+
+	/** Default number of chunks in flight. */
+	public static final int DEFAULT_SLOTS = 8;
+
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+	private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "digest-worker-" + THREAD_ID.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final MultiDigest engine;
+	private final ChunkRing ring;
+	private final int[][] assignment;
+	private final HashListener listener;
+	private final List<Future<byte[][]>> workers = new ArrayList<>();
+
+	/**
+	 * Start workers for the sinks of {@code engine}.
+	 *
+	 * @param engine    the sinks to run; they must not have been fed yet
+	 * @param threads   the maximum number of worker threads
+	 * @param chunkSize the size of the chunk buffers handed out by
+	 *                  {@link #claim}
+	 * @param slots     the number of chunks in flight, a power of two
+	 */
+	public ParallelDigest(MultiDigest engine, int threads, int chunkSize, int slots) {
+		this(engine, threads, chunkSize, slots, HashListener.NONE);
+	}
+
+	/**
+	 * Start workers for the sinks of {@code engine}. Each worker reports its
+	 * results to {@code listener} as soon as it has them.
+	 *
+	 * @param engine    the sinks to run; they must not have been fed yet
+	 * @param threads   the maximum number of worker threads
+	 * @param chunkSize the size of the chunk buffers handed out by
+	 *                  {@link #claim}
+	 * @param slots     the number of chunks in flight, a power of two
+	 * @param listener  told about each result, on the worker thread
+	 */
+	public ParallelDigest(MultiDigest engine, int threads, int chunkSize, int slots, HashListener listener) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		this.engine = engine;
+		this.listener = listener;
+		this.assignment = assign(engine, Math.min(threads, engine.size()));
+		this.ring = new ChunkRing(slots, chunkSize, assignment.length);
+		for (int w = 0; w < assignment.length; w++) {
+			final int worker = w;
+			workers.add(WORKERS.submit(() -> consume(worker)));
+		}
+	}
+
+	/**
+	 * Get the number of worker threads in use.
+	 *
+	 * @return the worker count
+	 */
+	public int getWorkerCount() {
+		return assignment.length;
+	}
+
+	/**
+	 * Get a cleared heap buffer to fill with the next chunk, then pass to
+	 * {@link #publish}. May block until the workers free a slot.
+	 *
+	 * @return the chunk buffer
+	 * @throws RuntimeException the failure of a worker, if one failed
+	 */
+	public ByteBuffer claim() {
+		try {
+			return ring.claim();
+		} catch (CancellationException e) {
+			throw failure(e);
+		}
+	}
+
+	/**
+	 * Hand the remaining bytes of {@code chunk} to every worker. The chunk
+	 * must not be modified afterwards; it is either the buffer from
+	 * {@link #claim}, or a buffer the caller leaves alone (such as a mapped
+	 * window). May block until the workers free a slot.
+	 *
+	 * @param chunk the chunk to publish
+	 * @throws RuntimeException the failure of a worker, if one failed
+	 */
+	public void publish(ByteBuffer chunk) {
+		try {
+			ring.publish(chunk);
+		} catch (CancellationException e) {
+			throw failure(e);
+		}
+	}
+
+	/**
+	 * Wait for the workers to consume every chunk and return the hash
+	 * outputs, in the order of the engine's sinks. The sinks are reset.
+	 *
+	 * @return one hash output per sink
+	 */
+	public byte[][] finish() {
+		ring.finish();
+		byte[][] out = new byte[engine.size()][];
+		for (int w = 0; w < assignment.length; w++) {
+			byte[][] part = join(workers.get(w));
+			for (int i = 0; i < assignment[w].length; i++)
+				out[assignment[w][i]] = part[i];
+		}
+		return out;
+	}
+
+	/**
+	 * Stop the workers and reset the sinks. Waits for the workers to exit,
+	 * so that the sinks can be reused straight away.
+	 *
+	 * @param cause the reason, reported by the workers
+	 */
+	public void abort(Throwable cause) {
+		ring.fail(cause);
+		for (Future<byte[][]> worker : workers) {
+			try {
+				worker.get();
+			} catch (ExecutionException | RuntimeException e) {
+				// expected: the ring was aborted
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		engine.reset();
+	}
+
+	private byte[][] consume(int worker) {
+		DigestSink[] sinks = new DigestSink[assignment[worker].length];
+		for (int i = 0; i < sinks.length; i++)
+			sinks[i] = engine.getSink(assignment[worker][i]);
+		MultiDigest group = new MultiDigest(engine.getSliceLength(), sinks);
+		try {
+			for (long seq = 0;; seq++) {
+				ByteBuffer chunk = ring.take(worker, seq);
+				if (chunk == null)
+					break;
+				group.update(chunk);
+				ring.release(worker, seq);
+			}
+			byte[][] out = group.digest();
+			for (int i = 0; i < out.length; i++)
+				listener.digestReady(assignment[worker][i], out[i]);
+			return out;
+		} catch (RuntimeException | Error e) {
+			ring.fail(e);
+			group.reset();
+			throw e;
+		}
+	}
+
+	private byte[][] join(Future<byte[][]> worker) {
+		try {
+			return worker.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abort(e);
+			throw new IllegalStateException("Interrupted while waiting for digest workers", e);
+		} catch (ExecutionException e) {
+			abort(e.getCause());
+			throw failure(new IllegalStateException("Digest worker failed", ring.getFailure()));
+		}
+	}
+
+	// the first failure recorded by the ring, as the worker threw it, rather
+	// than the wrapper the ring throws at the producer
+	private RuntimeException failure(RuntimeException fallback) {
+		Throwable cause = ring.getFailure();
+		if (cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		if (cause instanceof Error)
+			throw (Error) cause;
+		return fallback;
+	}
+
+	// longest-processing-time-first: heaviest sink to the least-loaded worker
+	private static int[][] assign(MultiDigest engine, int workers) {
+		int n = engine.size();
+		double[] cost = new double[n];
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			cost[i] = DigestCost.of(engine.getSink(i));
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble((Integer i) -> cost[i]).reversed());
+		double[] load = new double[workers];
+		List<List<Integer>> groups = new ArrayList<>();
+		for (int w = 0; w < workers; w++)
+			groups.add(new ArrayList<>());
+		for (int i : order) {
+			int least = 0;
+			for (int w = 1; w < workers; w++)
+				if (load[w] < load[least])
+					least = w;
+			load[least] += cost[i];
+			groups.get(least).add(i);
+		}
+		int[][] out = new int[workers][];
+		for (int w = 0; w < workers; w++) {
+			List<Integer> group = groups.get(w);
+			group.sort(null);
+			out[w] = new int[group.size()];
+			for (int i = 0; i < out[w].length; i++)
+				out[w][i] = group.get(i);
+		}
+		return out;
+	}
+}
@@ -0,0 +1,216 @@
+package rawr.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Hashes a file sequentially, saving the state of every engine to a
+ * checkpoint file at a fixed interval, so that a run that is interrupted
+ * (cancelled, killed or crashed) carries on from the last checkpoint the next
+ * time instead of starting over.
+ *
+ * A checkpoint is only used while the file's canonical path, size,
+ * modification time and file key are unchanged, and only by a hasher for the
+ * same algorithms in the same order; otherwise hashing starts from the
+ * beginning. Cancelling through the {@link HashListener} writes a checkpoint
+ * before giving up, which makes it a pause. The checkpoint is deleted once the
+ * file has been hashed.
+ *
+ * Only {@linkplain HashAlgorithm#isResumable resumable} algorithms can be
+ * used: the {@code fr.cryptohash} digests, MD4, XYZ and the checksums. The
+ * JCA digests do not expose their state.
+ *
+ * A {@code ResumableHasher} only holds its configuration and may be shared
+ * between threads, as long as no two calls use the same checkpoint file.
+ *
+ * @author rawr51919
+ */
+public class ResumableHasher {
+
+	/** Default checkpoint interval: 1 GiB. */
+	public static final long DEFAULT_INTERVAL = 1L << 30;
+
+	private static final int MAGIC = 0x48434b50; // "HCKP"
+	private static final int VERSION = 1;
+
+	private final List<HashAlgorithm> algorithms;
+	private final int bufferSize;
+	private final long interval;
+
+	/**
+	 * Create a hasher with the default buffer size and checkpoint interval.
+	 *
+	 * @param algorithms the algorithms to compute
+	 * @throws IllegalArgumentException if an algorithm is not resumable
+	 */
+	public ResumableHasher(Collection<HashAlgorithm> algorithms) {
+		this(algorithms, FileHasher.DEFAULT_BUFFER_SIZE, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Create a hasher.
+	 *
+	 * @param algorithms the algorithms to compute, in the order their
+	 *                   outputs are reported to {@link HashListener}s
+	 * @param bufferSize the read buffer size, in bytes
+	 * @param interval   how many bytes to hash between checkpoints
+	 * @throws IllegalArgumentException if an algorithm is not resumable, or
+	 *         a size is out of range
+	 */
+	public ResumableHasher(Collection<HashAlgorithm> algorithms, int bufferSize, long interval) {
+		if (bufferSize < FileHasher.MIN_BUFFER_SIZE || bufferSize > FileHasher.MAX_BUFFER_SIZE)
+			throw new IllegalArgumentException("Buffer size must be between " + FileHasher.MIN_BUFFER_SIZE + " and "
+					+ FileHasher.MAX_BUFFER_SIZE + " bytes: " + bufferSize);
+		if (interval <= 0)
+			throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+		for (HashAlgorithm algorithm : algorithms)
+			if (!algorithm.isResumable())
+				throw new IllegalArgumentException("Not resumable: " + algorithm.getLabel());
+		this.algorithms = Collections.unmodifiableList(new ArrayList<>(algorithms));
+		this.bufferSize = bufferSize;
+		this.interval = interval;
+	}
+
+	/**
+	 * Get the algorithms computed by this hasher.
+	 *
+	 * @return an unmodifiable list of algorithms
+	 */
+	public List<HashAlgorithm> getAlgorithms() {
+		return algorithms;
+	}
+
+	/**
+	 * Get the checkpoint interval.
+	 *
+	 * @return the number of bytes hashed between checkpoints
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Hash a file, resuming from {@code checkpoint} if it holds a usable
+	 * checkpoint, and reporting progress to {@code listener}. Progress
+	 * counts the bytes hashed before the checkpoint too.
+	 *
+	 * @param file       the file to hash
+	 * @param checkpoint where checkpoints are kept
+	 * @param listener   the progress listener
+	 * @return the hash outputs
+	 * @throws IOException if the file cannot be read, changes while it is
+	 *         read, or a checkpoint cannot be written
+	 * @throws CancellationException if {@code listener} cancelled the call,
+	 *         after a checkpoint was written
+	 */
+	public HashResult hash(Path file, Path checkpoint, HashListener listener) throws IOException {
+		FileIdentity id = FileIdentity.of(file);
+		MultiDigest engine = HashAlgorithm.newMultiDigest(algorithms);
+		long position = resume(checkpoint, id, engine);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.max(FileHasher.MIN_BUFFER_SIZE,
+					Math.min(bufferSize, id.size)));
+			long next = position + interval;
+			listener.bytesHashed(position);
+			int n;
+			while (true) {
+				if (listener.isCancelled()) {
+					save(checkpoint, id, engine, position);
+					throw new CancellationException("Hashing cancelled");
+				}
+				if ((n = channel.read(buf, position)) < 0)
+					break;
+				buf.flip();
+				engine.update(buf);
+				buf.clear();
+				position += n;
+				listener.bytesHashed(position);
+				if (position >= next) {
+					save(checkpoint, id, engine, position);
+					next = position + interval;
+				}
+			}
+		}
+		if (position != id.size || !id.equals(FileIdentity.of(file))) {
+			Files.deleteIfExists(checkpoint);
+			throw new IOException("File changed while it was hashed: " + file);
+		}
+		byte[][] out = engine.digest();
+		for (int i = 0; i < out.length; i++)
+			listener.digestReady(i, out[i]);
+		Files.deleteIfExists(checkpoint);
+		return new HashResult(algorithms, out);
+	}
+
+	// load the checkpoint into engine and return where to carry on, or 0 if
+	// there is no usable checkpoint
+	private long resume(Path checkpoint, FileIdentity id, MultiDigest engine) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || !id.equals(FileIdentity.read(in)))
+				return 0;
+			long position = in.readLong();
+			if (position < 0 || position > id.size || in.readUnsignedByte() != algorithms.size())
+				return 0;
+			byte[][] states = new byte[algorithms.size()][];
+			for (int i = 0; i < states.length; i++) {
+				if (!in.readUTF().equals(algorithms.get(i).name()))
+					return 0;
+				states[i] = new byte[in.readInt()];
+				in.readFully(states[i]);
+			}
+			engine.importState(states, position);
+			return position;
+		} catch (NoSuchFileException e) {
+			return 0;
+		} catch (IOException | IllegalArgumentException e) {
+			// a torn or foreign file is no worse than no checkpoint at all
+			engine.reset();
+			return 0;
+		}
+	}
+
+	// written next to the checkpoint, synced, then moved over it, so the old
+	// checkpoint stays usable until the new one is complete
+	private void save(Path checkpoint, FileIdentity id, MultiDigest engine, long position) throws IOException {
+		byte[][] states = engine.exportState();
+		Path dir = checkpoint.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(dir, checkpoint.getFileName().toString(), ".tmp");
+		try {
+			try (FileOutputStream file = new FileOutputStream(temp.toFile());
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				id.write(out);
+				out.writeLong(position);
+				out.writeByte(states.length);
+				for (int i = 0; i < states.length; i++) {
+					out.writeUTF(algorithms.get(i).name());
+					out.writeInt(states[i].length);
+					out.write(states[i]);
+				}
+				out.flush();
+				file.getFD().sync();
+			}
+			Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package rawr.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.codec.binary.Base32;
+
+import fr.cryptohash.Digest;
+import fr.cryptohash.Tiger;
+
+/**
+ * The Tiger Tree Hash (TTH) used by file-sharing and P2P systems to identify
+ * content: a binary {@link TreeDigest} over {@link Tiger}, with 1024-byte
+ * leaves hashed as {@code Tiger(0x00 || leaf)} and inner nodes as
+ * {@code Tiger(0x01 || left || right)}.
+ *
+ * Leaves are hashed on a {@link ForkJoinPool} and the tree is built as the
+ * input arrives, keeping one pending node per level. The root is usually
+ * shown in unpadded Base32, as in {@code urn:tree:tiger:}; see
+ * {@link #digestBase32} and {@link #toBase32}.
+ *
+ * @author rawr51919
+ */
+public class TigerTree extends TreeDigest {
+
+	/** The TTH leaf size: 1024 bytes. */
+	public static final int LEAF_SIZE = 1024;
+
+	/**
+	 * Create a TTH engine on the common pool.
+	 */
+	public TigerTree() {
+		this(false, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a TTH engine.
+	 *
+	 * @param keepLeaves whether to keep every leaf hash for
+	 *                   {@link #getLeafHashes}
+	 * @param pool       hashes the leaves
+	 */
+	public TigerTree(boolean keepLeaves, ForkJoinPool pool) {
+		super(new Tiger(), LEAF_SIZE, 2, keepLeaves, pool);
+	}
+
+	private TigerTree(TigerTree source) {
+		super(source);
+	}
+
+	/**
+	 * Finalize the current computation and return the root in unpadded
+	 * Base32. The object is reset.
+	 *
+	 * @return the root, in Base32
+	 */
+	public String digestBase32() {
+		return toBase32(digest());
+	}
+
+	/**
+	 * Encode a TTH root the way it is usually shown: RFC 4648 Base32,
+	 * upper case, without padding.
+	 *
+	 * @param root the 24-byte root
+	 * @return the root, in Base32
+	 */
+	public static String toBase32(byte[] root) {
+		String encoded = new Base32().encodeAsString(root);
+		int end = encoded.indexOf('=');
+		return end < 0 ? encoded : encoded.substring(0, end);
+	}
+
+	/** @see Digest */
+	@Override
+	public Digest copy() {
+		return new TigerTree(this);
+	}
+
+	/** @see Digest */
+	@Override
+	public String toString() {
+		return "TTH";
+	}
+}
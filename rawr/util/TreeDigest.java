@@ -0,0 +1,543 @@
+package rawr.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import fr.cryptohash.Digest;
+
+/**
+ * A Merkle tree hash over any {@link Digest}, whose leaves are hashed in
+ * parallel, so that a single large input can keep several cores busy even
+ * with a Merkle-Damgård digest such as Whirlpool or RIPEMD160.
+ *
+ * The input is split into leaves of a fixed size (the last one may be
+ * shorter; an empty input is one empty leaf). Each leaf is hashed as
+ * {@code H(0x00 || leaf)}. Each level is then cut into groups of up to
+ * {@code fanOut} nodes, in order, and each group of two or more nodes becomes
+ * {@code H(0x01 || node || ... || node)} on the next level; a group of one is
+ * promoted as it is. The last node standing is the root, which is the
+ * output. With a fan-out of 2 and Tiger over 1024-byte leaves this is the
+ * Tiger Tree Hash.
+ *
+ * Input is collected into batches of leaves. While the caller fills the
+ * next batch, the previous one is hashed on a {@link ForkJoinPool}, one
+ * engine per worker. A batch holds a power of {@code fanOut} leaves, so a
+ * full batch is a complete subtree: the workers also reduce it to its root,
+ * which is all that the caller folds into the tree. Only
+ * the unfinished group of each level is kept, so memory grows with the depth
+ * of the tree, not the input size, unless the leaf hashes are kept for
+ * {@linkplain #getLeafHashes partial verification}.
+ *
+ * Like every {@code Digest}, an instance is not thread-safe.
+ *
+ * @author rawr51919
+ */
+public class TreeDigest implements Digest {
+
+	/** Default leaf size: 64 KiB. */
+	public static final int DEFAULT_LEAF_SIZE = 64 << 10;
+	/** Default fan-out: a binary tree. */
+	public static final int DEFAULT_FAN_OUT = 2;
+	/** Input collected before a batch of leaves is handed to the pool: 4 MiB. */
+	public static final int BATCH_SIZE = 4 << 20;
+	// bounds the leaf hashes held per batch when leaves are tiny
+	private static final int MAX_BATCH_LEAVES = 1 << 14;
+
+	private final Digest prototype;
+	private final int leafSize;
+	private final int fanOut;
+	private final boolean keepLeaves;
+	private final ForkJoinPool pool;
+	// one engine per leaf range in a batch, and one for the nodes
+	private final Digest[] leafEngines;
+	private final Digest nodeEngine;
+	private final int batchLeaves;
+	// the level of the root of a full batch
+	private final int batchLevel;
+
+	private byte[] fill;
+	private int fillLen;
+	// the batch being hashed, if any, and the buffer it is being read from
+	private BatchTask inFlight;
+	private byte[] spare;
+	private long leafCount;
+	// the unfinished group of each level, lowest first
+	private final List<List<byte[]>> pending = new ArrayList<>();
+	private List<byte[]> leaves;
+	private List<byte[]> lastLeaves;
+
+	/**
+	 * Create a binary tree digest with the default leaf size, on the common
+	 * pool.
+	 *
+	 * @param prototype the digest for leaves and nodes
+	 */
+	public TreeDigest(Digest prototype) {
+		this(prototype, DEFAULT_LEAF_SIZE, DEFAULT_FAN_OUT, false, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a tree digest on the common pool.
+	 *
+	 * @param prototype the digest for leaves and nodes
+	 * @param leafSize  the leaf size, in bytes
+	 * @param fanOut    the most children a node can have
+	 */
+	public TreeDigest(Digest prototype, int leafSize, int fanOut) {
+		this(prototype, leafSize, fanOut, false, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a tree digest.
+	 *
+	 * @param prototype  the digest for leaves and nodes; it is copied, not
+	 *                   used
+	 * @param leafSize   the leaf size, in bytes
+	 * @param fanOut     the most children a node can have
+	 * @param keepLeaves whether to keep every leaf hash for
+	 *                   {@link #getLeafHashes}
+	 * @param pool       hashes the leaves
+	 */
+	public TreeDigest(Digest prototype, int leafSize, int fanOut, boolean keepLeaves, ForkJoinPool pool) {
+		if (leafSize <= 0)
+			throw new IllegalArgumentException("Leaf size must be positive: " + leafSize);
+		if (fanOut < 2 || fanOut > 255)
+			throw new IllegalArgumentException("Fan-out must be between 2 and 255: " + fanOut);
+		this.prototype = prototype.copy();
+		this.prototype.reset();
+		this.leafSize = leafSize;
+		this.fanOut = fanOut;
+		this.keepLeaves = keepLeaves;
+		this.pool = pool;
+		// batches hold whole leaves, as many as fit in an array, rounded down
+		// to a power of the fan-out
+		int target = Math.min(Math.min(Math.max(BATCH_SIZE / leafSize, 2 * pool.getParallelism()), MAX_BATCH_LEAVES),
+				Math.max(1, (Integer.MAX_VALUE - 8) / leafSize));
+		int leavesPerBatch = 1;
+		int level = 0;
+		for (; leavesPerBatch <= target / fanOut; level++)
+			leavesPerBatch *= fanOut;
+		this.batchLeaves = leavesPerBatch;
+		this.batchLevel = level;
+		// as many ranges as fit in a batch as complete subtrees
+		int ranges = 1;
+		while (ranges <= Math.min(pool.getParallelism(), batchLeaves) / fanOut)
+			ranges *= fanOut;
+		this.leafEngines = new Digest[ranges];
+		for (int i = 0; i < leafEngines.length; i++)
+			leafEngines[i] = this.prototype.copy();
+		this.nodeEngine = this.prototype.copy();
+		this.fill = new byte[batchLeaves * leafSize];
+		if (keepLeaves)
+			leaves = new ArrayList<>();
+	}
+
+	/**
+	 * Create a copy of {@code source}, in the same state.
+	 *
+	 * @param source the digest to copy
+	 */
+	protected TreeDigest(TreeDigest source) {
+		this(source.prototype, source.leafSize, source.fanOut, source.keepLeaves, source.pool);
+		source.await();
+		System.arraycopy(source.fill, 0, fill, 0, source.fillLen);
+		fillLen = source.fillLen;
+		leafCount = source.leafCount;
+		for (List<byte[]> group : source.pending)
+			pending.add(new ArrayList<>(group));
+		if (keepLeaves)
+			leaves.addAll(source.leaves);
+		lastLeaves = source.lastLeaves;
+	}
+
+	/**
+	 * Get the leaf size.
+	 *
+	 * @return the leaf size, in bytes
+	 */
+	public int getLeafSize() {
+		return leafSize;
+	}
+
+	/**
+	 * Get the fan-out.
+	 *
+	 * @return the most children a node can have
+	 */
+	public int getFanOut() {
+		return fanOut;
+	}
+
+	/**
+	 * Get the leaf hashes of the last finished computation, in input order,
+	 * so that a copy of the input can be checked leaf by leaf. Check them
+	 * against a trusted root with {@link #root} first.
+	 *
+	 * @return an unmodifiable list of leaf hashes, or {@code null} if the
+	 *         digest does not keep them or has not finished a computation
+	 */
+	public List<byte[]> getLeafHashes() {
+		return lastLeaves;
+	}
+
+	/**
+	 * Hash one leaf.
+	 *
+	 * @param digest the digest, which must be reset; it is reset again
+	 * @param buf    the data buffer
+	 * @param off    the leaf offset in {@code buf}
+	 * @param len    the leaf length (in bytes)
+	 * @return the leaf hash
+	 */
+	public static byte[] leafHash(Digest digest, byte[] buf, int off, int len) {
+		digest.update((byte) 0x00);
+		digest.update(buf, off, len);
+		return digest.digest();
+	}
+
+	/**
+	 * Compute the root of a tree from its leaf hashes, as a tree digest with
+	 * the same digest and fan-out would.
+	 *
+	 * @param digest the digest, which must be reset; it is reset again
+	 * @param fanOut the most children a node can have
+	 * @param leaves the leaf hashes, in input order; at least one
+	 * @return the root
+	 */
+	public static byte[] root(Digest digest, int fanOut, List<byte[]> leaves) {
+		if (leaves.isEmpty())
+			throw new IllegalArgumentException("A tree has at least one leaf");
+		List<byte[]> level = leaves;
+		while (level.size() > 1) {
+			List<byte[]> up = new ArrayList<>((level.size() + fanOut - 1) / fanOut);
+			for (int i = 0; i < level.size(); i += fanOut)
+				up.add(nodeHash(digest, level.subList(i, Math.min(i + fanOut, level.size()))));
+			level = up;
+		}
+		return level.get(0).clone();
+	}
+
+	// a group of one is promoted as it is
+	private static byte[] nodeHash(Digest digest, List<byte[]> children) {
+		if (children.size() == 1)
+			return children.get(0);
+		digest.update((byte) 0x01);
+		for (byte[] child : children)
+			digest.update(child);
+		return digest.digest();
+	}
+
+	/** @see Digest */
+	public void update(byte in) {
+		fill[fillLen++] = in;
+		if (fillLen == fill.length)
+			submit();
+	}
+
+	/** @see Digest */
+	public void update(byte[] inbuf) {
+		update(inbuf, 0, inbuf.length);
+	}
+
+	/** @see Digest */
+	public void update(byte[] inbuf, int off, int len) {
+		while (len > 0) {
+			int n = Math.min(len, fill.length - fillLen);
+			System.arraycopy(inbuf, off, fill, fillLen, n);
+			fillLen += n;
+			off += n;
+			len -= n;
+			if (fillLen == fill.length)
+				submit();
+		}
+	}
+
+	/** @see Digest */
+	public void update(ByteBuffer input) {
+		if (input.hasArray()) {
+			update(input.array(), input.arrayOffset() + input.position(), input.remaining());
+			input.position(input.limit());
+			return;
+		}
+		// direct buffers go straight into the batch buffer
+		while (input.hasRemaining()) {
+			int n = Math.min(input.remaining(), fill.length - fillLen);
+			input.get(fill, fillLen, n);
+			fillLen += n;
+			if (fillLen == fill.length)
+				submit();
+		}
+	}
+
+	// hand the filled batch to the pool and carry on in the other buffer
+	private void submit() {
+		await();
+		inFlight = new BatchTask(fill, fillLen);
+		pool.execute(inFlight);
+		byte[] next = spare != null ? spare : new byte[fill.length];
+		spare = fill;
+		fill = next;
+		fillLen = 0;
+	}
+
+	// fold the batch in flight, if any, into the tree; batches are aligned,
+	// so the levels below a full batch's root are empty
+	private void await() {
+		if (inFlight == null)
+			return;
+		BatchTask batch = inFlight;
+		byte[][] hashes = batch.join();
+		inFlight = null;
+		if (keepLeaves)
+			leaves.addAll(Arrays.asList(hashes));
+		leafCount += hashes.length;
+		if (batch.root != null) {
+			add(batchLevel, batch.root);
+		} else {
+			for (byte[] leaf : hashes)
+				add(0, leaf);
+		}
+	}
+
+	private void add(int level, byte[] node) {
+		while (level >= pending.size())
+			pending.add(new ArrayList<>(fanOut));
+		List<byte[]> group = pending.get(level);
+		group.add(node);
+		if (group.size() == fanOut) {
+			byte[] parent = nodeHash(nodeEngine, group);
+			group.clear();
+			add(level + 1, parent);
+		}
+	}
+
+	/** @see Digest */
+	public byte[] digest() {
+		byte[] out = new byte[getDigestLength()];
+		digest(out, 0, out.length);
+		return out;
+	}
+
+	/** @see Digest */
+	public byte[] digest(byte[] inbuf) {
+		update(inbuf);
+		return digest();
+	}
+
+	/** @see Digest */
+	public int digest(byte[] outbuf, int off, int len) {
+		if (fillLen > 0 || leafCount == 0 && inFlight == null)
+			submit();
+		await();
+		// close the unfinished groups from the bottom up; each one ends
+		// its level, so its node is the last one of the level above
+		byte[] carry = null;
+		for (int level = 0;; level++) {
+			List<byte[]> group = level < pending.size() ? pending.get(level) : new ArrayList<>();
+			if (carry != null)
+				group.add(carry);
+			if (level >= pending.size() - 1 && group.size() == 1) {
+				carry = group.get(0);
+				break;
+			}
+			carry = group.isEmpty() ? null : nodeHash(nodeEngine, group);
+		}
+		if (keepLeaves)
+			lastLeaves = Collections.unmodifiableList(new ArrayList<>(leaves));
+		len = Math.min(len, carry.length);
+		System.arraycopy(carry, 0, outbuf, off, len);
+		reset();
+		return len;
+	}
+
+	/** @see Digest */
+	public int getDigestLength() {
+		return prototype.getDigestLength();
+	}
+
+	/** @see Digest */
+	public void reset() {
+		if (inFlight != null) {
+			// the buffer must not be reused while it is still being read
+			inFlight.join();
+			inFlight = null;
+		}
+		fillLen = 0;
+		leafCount = 0;
+		pending.clear();
+		if (keepLeaves)
+			leaves.clear();
+	}
+
+	/** @see Digest */
+	public Digest copy() {
+		return new TreeDigest(this);
+	}
+
+	/**
+	 * The block length of the underlying digest.
+	 *
+	 * @see Digest
+	 */
+	public int getBlockLength() {
+		return prototype.getBlockLength();
+	}
+
+	/** @see Digest */
+	public byte[] exportState() {
+		await();
+		try {
+			ByteArrayOutputStream buf = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(buf);
+			out.writeUTF(prototype.getClass().getName());
+			out.writeInt(leafSize);
+			out.writeByte(fanOut);
+			out.writeLong(leafCount);
+			out.writeInt(pending.size());
+			for (List<byte[]> group : pending) {
+				out.writeByte(group.size());
+				for (byte[] node : group)
+					out.write(node);
+			}
+			out.writeBoolean(keepLeaves);
+			if (keepLeaves)
+				for (byte[] leaf : leaves)
+					out.write(leaf);
+			out.writeInt(fillLen);
+			out.write(fill, 0, fillLen);
+			out.flush();
+			return buf.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** @see Digest */
+	public void importState(byte[] state) {
+		reset();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+		try {
+			if (!in.readUTF().equals(prototype.getClass().getName()) || in.readInt() != leafSize
+					|| in.readUnsignedByte() != fanOut)
+				throw new IllegalArgumentException("State exported by another tree digest");
+			leafCount = in.readLong();
+			for (int levels = in.readInt(); levels > 0; levels--) {
+				List<byte[]> group = new ArrayList<>(fanOut);
+				for (int n = in.readUnsignedByte(); n > 0; n--)
+					group.add(readNode(in));
+				pending.add(group);
+			}
+			if (in.readBoolean() != keepLeaves)
+				throw new IllegalArgumentException("State exported by another tree digest");
+			if (keepLeaves)
+				for (long n = leafCount; n > 0; n--)
+					leaves.add(readNode(in));
+			int n = in.readInt();
+			if (n < 0 || n >= fill.length)
+				throw new IllegalArgumentException("Corrupt tree digest state");
+			in.readFully(fill, 0, n);
+			fillLen = n;
+		} catch (IOException e) {
+			reset();
+			throw new IllegalArgumentException("Truncated tree digest state", e);
+		} catch (IllegalArgumentException e) {
+			reset();
+			throw e;
+		}
+	}
+
+	private byte[] readNode(DataInputStream in) throws IOException {
+		byte[] node = new byte[getDigestLength()];
+		in.readFully(node);
+		return node;
+	}
+
+	/**
+	 * Get a name that identifies the algorithm: the tree's class and the
+	 * class of the digest over its leaves and nodes, as in
+	 * {@code rawr.util.TreeDigest(fr.cryptohash.Whirlpool)}.
+	 *
+	 * @return the algorithm name
+	 * @see DigestSink#getAlgorithm()
+	 */
+	public String getAlgorithm() {
+		return getClass().getName() + "(" + prototype.getClass().getName() + ")";
+	}
+
+	/** @see Digest */
+	@Override
+	public String toString() {
+		return prototype + " tree (" + leafSize + "-byte leaves, fan-out " + fanOut + ")";
+	}
+
+	// hashes the leaves of one batch, split into one range per engine, and
+	// reduces a full batch to its root
+	private final class BatchTask extends ForkJoinTask<byte[][]> {
+		private static final long serialVersionUID = 1L;
+		private final transient byte[] buf;
+		private final int len;
+		private final transient byte[][] hashes;
+		// set for a full batch
+		transient byte[] root;
+
+		BatchTask(byte[] buf, int len) {
+			this.buf = buf;
+			this.len = len;
+			// an empty batch is the single empty leaf of an empty input
+			this.hashes = new byte[Math.max(1, (int) ((len + (long) leafSize - 1) / leafSize))][];
+		}
+
+		@Override
+		public byte[][] getRawResult() {
+			return hashes;
+		}
+
+		@Override
+		protected void setRawResult(byte[][] value) {
+			// the result is filled in place
+		}
+
+		@Override
+		protected boolean exec() {
+			// the ranges of a full batch are complete subtrees too
+			final boolean full = len == fill.length;
+			int ranges = Math.min(leafEngines.length, hashes.length);
+			final byte[][] roots = new byte[ranges][];
+			List<RecursiveAction> tasks = new ArrayList<>(ranges);
+			for (int r = 0; r < ranges; r++) {
+				final int range = r;
+				final Digest engine = leafEngines[r];
+				final int from = (int) ((long) hashes.length * r / ranges);
+				final int to = (int) ((long) hashes.length * (r + 1) / ranges);
+				tasks.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						for (int i = from; i < to; i++) {
+							int off = i * leafSize;
+							hashes[i] = leafHash(engine, buf, off, Math.min(leafSize, len - off));
+						}
+						if (full)
+							roots[range] = TreeDigest.root(engine, fanOut, Arrays.asList(hashes).subList(from, to));
+					}
+				});
+			}
+			ForkJoinTask.invokeAll(tasks);
+			if (full)
+				root = TreeDigest.root(leafEngines[0], fanOut, Arrays.asList(roots));
+			return true;
+		}
+	}
+}
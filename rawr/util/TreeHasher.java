@@ -0,0 +1,312 @@
+package rawr.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hashes whole directory trees on a work-stealing {@link ForkJoinPool}.
+ *
+ * Every directory is listed by its own task, which forks one task per file and
+ * per subdirectory, so listing and hashing overlap and idle workers steal
+ * whatever is left, wherever it is in the tree. Small files therefore keep
+ * being hashed while another worker is busy with a huge one. Each file is
+ * hashed by a {@link HashSession}, with the engine pooled for the worker
+ * thread. Files are already hashed {@code parallelism} at a time, so the
+ * session's {@link FileHasher} should normally use a single thread;
+ * otherwise each large file starts digest workers of its own on top.
+ *
+ * In ordered mode, results are reported in the order a sequential walk would
+ * give (roots in the given order, directory entries sorted by name, depth
+ * first), however they complete: finished files wait in a reorder tree until
+ * everything before them has been reported. This holds back reporting, not
+ * hashing, but every result that is held back stays in memory. In unordered
+ * mode, results are reported as soon as they are known.
+ *
+ * Either way, {@link Results} methods are called by one thread at a time.
+ * Directory links are not followed, so the walk cannot loop. With a
+ * {@link HashCache}, files that have not changed since they were cached are
+ * not read at all.
+ *
+ * @author rawr51919
+ */
+public class TreeHasher {
+
+	/**
+	 * Receives the outcome of every file, one call at a time.
+	 */
+	public interface Results {
+
+		/**
+		 * A file was hashed.
+		 *
+		 * @param file   the file, as reached from its root
+		 * @param result the hash outputs
+		 */
+		void hashed(Path file, HashResult result);
+
+		/**
+		 * A file could not be hashed, or a directory could not be listed.
+		 *
+		 * @param path  the file or directory
+		 * @param cause the error
+		 */
+		void failed(Path path, Exception cause);
+	}
+
+	private final HashSession session;
+	private final HashCache cache;
+	private final ForkJoinPool pool;
+	private final boolean ordered;
+
+	/**
+	 * Create a tree hasher.
+	 *
+	 * @param session     hashes each file
+	 * @param parallelism the number of worker threads
+	 * @param ordered     whether to report results in walk order
+	 */
+	public TreeHasher(HashSession session, int parallelism, boolean ordered) {
+		this(session, null, parallelism, ordered);
+	}
+
+	/**
+	 * Create a tree hasher that reuses and adds to cached outputs.
+	 *
+	 * @param session     hashes each file that is not cached
+	 * @param cache       the cache to use, or {@code null} for none
+	 * @param parallelism the number of worker threads
+	 * @param ordered     whether to report results in walk order
+	 */
+	public TreeHasher(HashSession session, HashCache cache, int parallelism, boolean ordered) {
+		if (parallelism <= 0)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		this.session = session;
+		this.cache = cache;
+		this.pool = new ForkJoinPool(parallelism);
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Get whether results are reported in walk order.
+	 *
+	 * @return {@code true} in ordered mode
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Hash every root: files directly, directories recursively. Returns once
+	 * every result has been reported.
+	 *
+	 * @param roots   the files and directories to hash
+	 * @param results receives the results
+	 */
+	public void hash(List<Path> roots, Results results) {
+		hash(roots, Integer.MAX_VALUE, null, results);
+	}
+
+	/**
+	 * Hash every root: files directly, and directories down to
+	 * {@code maxDepth} levels, keeping only the files that {@code filter}
+	 * matches. Returns once every result has been reported.
+	 *
+	 * @param roots    the files and directories to hash
+	 * @param maxDepth how deep to walk directories; 1 only hashes the files
+	 *                 directly inside them
+	 * @param filter   the files to hash below directories, or {@code null} for
+	 *                 all of them
+	 * @param results  receives the results
+	 */
+	public void hash(List<Path> roots, int maxDepth, PathMatcher filter, Results results) {
+		Walk walk = new Walk(maxDepth, filter, results);
+		Node top = new Node(null, true, 0);
+		List<Node> children = new ArrayList<>();
+		for (Path root : roots)
+			children.add(new Node(root, Files.isDirectory(root), 0));
+		walk.listed(top, new ArrayList<>(children));
+		pool.invoke(new DirectoryTask(walk, top, children));
+	}
+
+	// one entry of the tree, in walk order
+	private static final class Node {
+		final Path path;
+		final boolean directory;
+		final int depth;
+		// set once, before the node is reported
+		List<Node> children;
+		HashResult result;
+		Exception error;
+		boolean done;
+
+		Node(Path path, boolean directory, int depth) {
+			this.path = path;
+			this.directory = directory;
+			this.depth = depth;
+		}
+	}
+
+	// the state of one call to hash(): how far results have been reported
+	private final class Walk {
+		final int maxDepth;
+		final PathMatcher filter;
+		final Results results;
+		// depth-first cursor into the reorder tree: the directories being
+		// reported, each with the index of its next child
+		final Deque<Node> stack = new ArrayDeque<>();
+		final Deque<int[]> next = new ArrayDeque<>();
+
+		Walk(int maxDepth, PathMatcher filter, Results results) {
+			this.maxDepth = maxDepth;
+			this.filter = filter;
+			this.results = results;
+		}
+
+		synchronized void listed(Node dir, List<Node> children) {
+			dir.children = children;
+			dir.done = true;
+			if (dir.path == null) {
+				stack.push(dir);
+				next.push(new int[1]);
+			} else if (!ordered && dir.error != null) {
+				report(dir);
+			}
+			if (ordered)
+				drain();
+		}
+
+		synchronized void hashed(Node file) {
+			file.done = true;
+			if (ordered)
+				drain();
+			else
+				report(file);
+		}
+
+		// report everything that is ready, in walk order, up to the first
+		// entry that is not
+		private void drain() {
+			while (!stack.isEmpty()) {
+				Node dir = stack.peek();
+				if (!dir.done)
+					return;
+				int[] index = next.peek();
+				if (index[0] == dir.children.size()) {
+					stack.pop();
+					next.pop();
+					dir.children = null;
+					continue;
+				}
+				Node child = dir.children.get(index[0]);
+				if (!child.done)
+					return;
+				// drop reported entries, so that only the held-back ones stay
+				dir.children.set(index[0]++, null);
+				if (child.error != null || !child.directory) {
+					report(child);
+				} else {
+					stack.push(child);
+					next.push(new int[1]);
+				}
+			}
+		}
+
+		private void report(Node node) {
+			if (node.error != null)
+				results.failed(node.path, node.error);
+			else
+				results.hashed(node.path, node.result);
+			node.result = null;
+		}
+	}
+
+	private final class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Walk walk;
+		private final transient Node dir;
+		private transient List<Node> children;
+
+		DirectoryTask(Walk walk, Node dir) {
+			this(walk, dir, null);
+		}
+
+		// for a directory whose entries are already known
+		DirectoryTask(Walk walk, Node dir, List<Node> children) {
+			this.walk = walk;
+			this.dir = dir;
+			this.children = children;
+		}
+
+		@Override
+		protected void compute() {
+			if (children == null) {
+				children = list();
+				// the reorder tree gets its own copy, which it empties as it
+				// reports
+				walk.listed(dir, new ArrayList<>(children));
+			}
+			List<RecursiveAction> tasks = new ArrayList<>(children.size());
+			for (Node child : children) {
+				if (child.directory)
+					tasks.add(new DirectoryTask(walk, child));
+				else
+					tasks.add(new FileTask(walk, child));
+			}
+			invokeAll(tasks);
+		}
+
+		private List<Node> list() {
+			List<Path> entries = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.path)) {
+				for (Path entry : stream)
+					entries.add(entry);
+			} catch (IOException | RuntimeException e) {
+				dir.error = e;
+				return new ArrayList<>();
+			}
+			entries.sort(null);
+			int depth = dir.depth + 1;
+			List<Node> children = new ArrayList<>(entries.size());
+			for (Path entry : entries) {
+				if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+					if (depth < walk.maxDepth)
+						children.add(new Node(entry, true, depth));
+				} else if (Files.isRegularFile(entry) && (walk.filter == null || walk.filter.matches(entry))) {
+					children.add(new Node(entry, false, depth));
+				}
+			}
+			return children;
+		}
+	}
+
+	private final class FileTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Walk walk;
+		private final transient Node file;
+
+		FileTask(Walk walk, Node file) {
+			this.walk = walk;
+			this.file = file;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				file.result = cache != null ? cache.hash(session, file.path) : session.hash(file.path.toFile());
+			} catch (IOException | RuntimeException e) {
+				file.error = e;
+			}
+			walk.hashed(file);
+		}
+	}
+}